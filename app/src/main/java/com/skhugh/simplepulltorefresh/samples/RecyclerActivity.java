@@ -22,7 +22,8 @@ package com.skhugh.simplepulltorefresh.samples;
 import android.content.Context;
 import android.graphics.Color;
 import android.os.Bundle;
-import android.os.Handler;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.v7.app.AlertDialog;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.LinearLayoutManager;
@@ -34,11 +35,18 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
+import android.widget.Toast;
 
+import com.skhugh.simplepulltorefresh.AsyncPullToRefreshListener;
+import com.skhugh.simplepulltorefresh.LoadMoreListener;
 import com.skhugh.simplepulltorefresh.PullToRefreshLayout;
-import com.skhugh.simplepulltorefresh.PullToRefreshListener;
 
-public class RecyclerActivity extends AppCompatActivity implements PullToRefreshListener {
+import java.util.concurrent.Callable;
+
+public class RecyclerActivity extends AppCompatActivity implements AsyncPullToRefreshListener<String>, LoadMoreListener {
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGE_COUNT = 5;
+
     private PullToRefreshLayout pullToRefreshLayout;
     private DummyAdapter adapter;
 
@@ -61,21 +69,46 @@ public class RecyclerActivity extends AppCompatActivity implements PullToRefresh
 
     private void setUpPullToRefreshLayout() {
         pullToRefreshLayout = (PullToRefreshLayout) findViewById(R.id.pulltorefresh);
-        pullToRefreshLayout.setPullToRefreshListener(this);
+        pullToRefreshLayout.setAsyncPullToRefreshListener(this);
+        pullToRefreshLayout.setLoadMoreListener(this);
         pullToRefreshLayout.setRefreshLayoutBackgroundColor(Color.WHITE);
     }
 
     @Override
-    public void onStartRefresh(View view) {
-        Runnable runnable = new Runnable() {
+    public void onLoadMore(@Nullable View view) {
+        // Pretend to load the next page
+        pullToRefreshLayout.postDelayed(new Runnable() {
             @Override
             public void run() {
-                pullToRefreshLayout.refreshDone();
-                adapter.refresh();
+                adapter.addPage();
+                pullToRefreshLayout.loadMoreDone();
+                pullToRefreshLayout.setHasMoreToLoad(adapter.getItemCount() < PAGE_SIZE * PAGE_COUNT);
+            }
+        }, 700);
+    }
+
+    @NonNull
+    @Override
+    public Callable<String> onCreateRefreshTask(@Nullable View view) {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                // Pretend to load new items
+                Thread.sleep(700);
+                return "New";
             }
         };
-        final Handler handler = new Handler();
-        handler.postDelayed(runnable, 700);
+    }
+
+    @Override
+    public void onRefreshFinished(@Nullable String itemPrefix) {
+        adapter.refresh(itemPrefix);
+        pullToRefreshLayout.setHasMoreToLoad(true);
+    }
+
+    @Override
+    public void onRefreshFailed(@NonNull Throwable throwable) {
+        Toast.makeText(this, "Refresh failed", Toast.LENGTH_SHORT).show();
     }
 
     @Override
@@ -105,6 +138,7 @@ public class RecyclerActivity extends AppCompatActivity implements PullToRefresh
     private class DummyAdapter extends RecyclerView.Adapter<DummyViewHolder> {
         private Context context;
         private String itemPrefix = "Old";
+        private int itemCount = PAGE_SIZE;
 
         private DummyAdapter(Context context) {
             super();
@@ -133,13 +167,19 @@ public class RecyclerActivity extends AppCompatActivity implements PullToRefresh
 
         @Override
         public int getItemCount() {
-            return 20;
+            return itemCount;
         }
 
-        void refresh() {
-            itemPrefix = "New";
+        void refresh(String itemPrefix) {
+            this.itemPrefix = itemPrefix;
+            itemCount = PAGE_SIZE;
             notifyDataSetChanged();
         }
+
+        void addPage() {
+            itemCount += PAGE_SIZE;
+            notifyItemRangeInserted(itemCount - PAGE_SIZE, PAGE_SIZE);
+        }
     }
 
     class DummyViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.physics;
+
+import com.skhugh.simplepulltorefresh.pullresistance.AsymptoticPullResistance;
+import com.skhugh.simplepulltorefresh.pullresistance.DefaultPullResistance;
+import com.skhugh.simplepulltorefresh.pullresistance.PullResistance;
+import com.skhugh.simplepulltorefresh.pullresistance.RubberBandPullResistance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-event and per-frame costs of the pull physics.
+ * Run with ./gradlew :simplepulltorefresh-core:jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PullPhysicsBenchmark {
+    private static final int THRESHOLD_HEIGHT = 300;
+    private static final int MAX_HEIGHT = 500;
+    private static final int FRAME_TIME = 16;
+
+    @Param({"default", "rubberBand", "asymptotic"})
+    public String pullResistance;
+
+    private PullTracker pullTracker;
+    private SpringSettle springSettle;
+    private float dy;
+    private long frameTime;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        pullTracker = new PullTracker(THRESHOLD_HEIGHT, MAX_HEIGHT);
+        pullTracker.setPullResistance(createPullResistance(pullResistance));
+        springSettle = new SpringSettle();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        pullTracker.startPull(0);
+        dy = 3;
+        springSettle.start(MAX_HEIGHT, THRESHOLD_HEIGHT, 0, 0);
+        frameTime = 0;
+    }
+
+    /**
+     * Cost of one ACTION_MOVE, pulling down and back up across the whole range so that every part of the
+     * resistance curve is exercised.
+     */
+    @Benchmark
+    public float pullPerEvent() {
+        float offset = pullTracker.pull(dy);
+        if (offset >= MAX_HEIGHT || offset <= 0) {
+            dy = -dy;
+        }
+        return offset;
+    }
+
+    /**
+     * Cost of one frame of the settle animation. The spring is restarted whenever it comes to rest.
+     */
+    @Benchmark
+    public float settlePerFrame() {
+        frameTime += FRAME_TIME;
+        if (!springSettle.update(frameTime)) {
+            springSettle.start(MAX_HEIGHT, THRESHOLD_HEIGHT, 0, frameTime);
+        }
+        return springSettle.getCurrentOffset();
+    }
+
+    /**
+     * Cost of the decisions taken once per frame while pulling: progress of the refresh icon and the thresholds.
+     */
+    @Benchmark
+    public boolean thresholdsPerFrame() {
+        float offset = pullTracker.pull(dy);
+        if (offset >= MAX_HEIGHT || offset <= 0) {
+            dy = -dy;
+        }
+        return pullTracker.getProgress(offset) > 0.5f && pullTracker.isPastPreArmThreshold(offset)
+                || pullTracker.shouldStartRefreshing(offset, 0);
+    }
+
+    private static PullResistance createPullResistance(String name) {
+        switch (name) {
+            case "rubberBand":
+                return new RubberBandPullResistance();
+            case "asymptotic":
+                return new AsymptoticPullResistance();
+            default:
+                return new DefaultPullResistance();
+        }
+    }
+}
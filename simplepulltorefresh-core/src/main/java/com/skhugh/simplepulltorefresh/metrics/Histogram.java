@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.metrics;
+
+/**
+ * Fixed-size histogram of non-negative long values. Buckets are allocated once in the constructor,
+ * so recording a value never allocates. Not thread safe.
+ */
+public class Histogram {
+    private final long[] bucketUpperBounds;
+    private final long[] bucketCounts;
+    private long count = 0;
+    private long sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * @param bucketUpperBounds inclusive upper bounds of the buckets in ascending order.
+     *                          Values above the last bound are counted in an extra overflow bucket.
+     */
+    public Histogram(long[] bucketUpperBounds) {
+        for (int i = 1; i < bucketUpperBounds.length; i++) {
+            if (bucketUpperBounds[i] <= bucketUpperBounds[i - 1]) {
+                throw new IllegalArgumentException("bucketUpperBounds must be in ascending order");
+            }
+        }
+        this.bucketUpperBounds = new long[bucketUpperBounds.length + 1];
+        System.arraycopy(bucketUpperBounds, 0, this.bucketUpperBounds, 0, bucketUpperBounds.length);
+        this.bucketUpperBounds[bucketUpperBounds.length] = Long.MAX_VALUE;
+        bucketCounts = new long[this.bucketUpperBounds.length];
+    }
+
+    /**
+     * Creates a histogram with the bounds firstUpperBound, 2 * firstUpperBound, 4 * firstUpperBound and so on.
+     *
+     * @param firstUpperBound upper bound of the first bucket, must be positive
+     * @param bucketCount     number of buckets, not counting the overflow bucket
+     */
+    public static Histogram exponential(long firstUpperBound, int bucketCount) {
+        long[] bucketUpperBounds = new long[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            bucketUpperBounds[i] = firstUpperBound << i;
+        }
+        return new Histogram(bucketUpperBounds);
+    }
+
+    public void record(long value) {
+        // Binary search for the first bucket whose upper bound is not below the value
+        int low = 0;
+        int high = bucketUpperBounds.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bucketUpperBounds[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        bucketCounts[low]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void reset() {
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = 0;
+        }
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the smallest recorded value, or 0 if nothing was recorded
+     */
+    public long getMin() {
+        return count > 0 ? min : 0;
+    }
+
+    /**
+     * @return the largest recorded value, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return count > 0 ? max : 0;
+    }
+
+    public double getMean() {
+        return count > 0 ? (double) sum / count : 0;
+    }
+
+    /**
+     * Returns an upper estimate of the given percentile: the upper bound of the bucket it falls in,
+     * capped at the largest recorded value.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return the estimated value, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * Math.max(0, Math.min(100, percentile)) / 100);
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(bucketUpperBounds[i], max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return number of buckets including the overflow bucket
+     */
+    public int getBucketCount() {
+        return bucketCounts.length;
+    }
+
+    /**
+     * @return inclusive upper bound of the bucket, Long.MAX_VALUE for the overflow bucket
+     */
+    public long getBucketUpperBound(int bucket) {
+        return bucketUpperBounds[bucket];
+    }
+
+    public long getBucketValueCount(int bucket) {
+        return bucketCounts[bucket];
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.metrics;
+
+/**
+ * {@link PullMetrics} which records everything into {@link Histogram}s. Durations are bucketed from 1 ms to
+ * about 32 s, per gesture counts from 1 to 4096. Read the histograms on the main thread.
+ */
+public class HistogramPullMetrics implements PullMetrics {
+    private static final int DURATION_BUCKET_COUNT = 16;
+    private static final int COUNT_BUCKET_COUNT = 13;
+
+    private final Histogram pullLatency = Histogram.exponential(1, DURATION_BUCKET_COUNT);
+    private final Histogram refreshDuration = Histogram.exponential(1, DURATION_BUCKET_COUNT);
+    private final Histogram settleDuration = Histogram.exponential(1, DURATION_BUCKET_COUNT);
+    private final Histogram moveEvents = Histogram.exponential(1, COUNT_BUCKET_COUNT);
+    private final Histogram layoutPasses = Histogram.exponential(1, COUNT_BUCKET_COUNT);
+    private final Histogram framesOverBudget = Histogram.exponential(1, COUNT_BUCKET_COUNT);
+    private long frames = 0;
+
+    @Override
+    public void onPullLatency(long latencyMillis) {
+        pullLatency.record(latencyMillis);
+    }
+
+    @Override
+    public void onRefreshDuration(long durationMillis) {
+        refreshDuration.record(durationMillis);
+    }
+
+    @Override
+    public void onSettleDuration(long durationMillis) {
+        settleDuration.record(durationMillis);
+    }
+
+    @Override
+    public void onGesture(int moveEvents, int layoutPasses, int frames, int framesOverBudget) {
+        this.moveEvents.record(moveEvents);
+        this.layoutPasses.record(layoutPasses);
+        this.framesOverBudget.record(framesOverBudget);
+        this.frames += frames;
+    }
+
+    public Histogram getPullLatency() {
+        return pullLatency;
+    }
+
+    public Histogram getRefreshDuration() {
+        return refreshDuration;
+    }
+
+    public Histogram getSettleDuration() {
+        return settleDuration;
+    }
+
+    public Histogram getMoveEvents() {
+        return moveEvents;
+    }
+
+    public Histogram getLayoutPasses() {
+        return layoutPasses;
+    }
+
+    public Histogram getFramesOverBudget() {
+        return framesOverBudget;
+    }
+
+    /**
+     * @return share of the frames drawn while pulling which took longer than one display refresh interval
+     */
+    public double getJankRatio() {
+        return frames > 0 ? (double) framesOverBudget.getSum() / frames : 0;
+    }
+
+    public void reset() {
+        pullLatency.reset();
+        refreshDuration.reset();
+        settleDuration.reset();
+        moveEvents.reset();
+        layoutPasses.reset();
+        framesOverBudget.reset();
+        frames = 0;
+    }
+}
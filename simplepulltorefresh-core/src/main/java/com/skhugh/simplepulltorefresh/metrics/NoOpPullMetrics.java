@@ -17,23 +17,30 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
-package com.skhugh.simplepulltorefresh.layoutanimation;
+package com.skhugh.simplepulltorefresh.metrics;
 
-import android.view.View;
-import android.view.animation.Transformation;
+/**
+ * Default {@link PullMetrics} which drops everything. Owners can check for it and skip measuring altogether.
+ */
+public final class NoOpPullMetrics implements PullMetrics {
+    public static final NoOpPullMetrics INSTANCE = new NoOpPullMetrics();
+
+    private NoOpPullMetrics() {
+    }
 
-import com.skhugh.simplepulltorefresh.ChildViewTopMarginCalculator;
+    @Override
+    public void onPullLatency(long latencyMillis) {
+    }
 
-public class RefreshLayoutAnimation extends LayoutAnimation {
-    public RefreshLayoutAnimation(ChildViewTopMarginCalculator childViewTopMarginCalculator, View targetView,
-            int refreshLayoutHeight) {
-        super(childViewTopMarginCalculator, targetView, refreshLayoutHeight);
+    @Override
+    public void onRefreshDuration(long durationMillis) {
+    }
+
+    @Override
+    public void onSettleDuration(long durationMillis) {
     }
 
     @Override
-    protected void applyTransformation(float interpolatedTime, Transformation t) {
-        targetViewWeakRef.get().getLayoutParams().height = childViewTopMarginCalculatorWeakRef.get()
-                .calculateNewTopMarginAtInterpolatedTime(refreshLayoutHeight,
-                        interpolatedTime) - childViewTopMarginCalculatorWeakRef.get().getInitialTopMargin();
+    public void onGesture(int moveEvents, int layoutPasses, int frames, int framesOverBudget) {
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.metrics;
+
+/**
+ * Receives performance numbers of pulls and refreshes. All methods are called on the main thread,
+ * in the middle of touch handling and animation frames, so implementations must be cheap and should not allocate.
+ * {@link HistogramPullMetrics} collects them into fixed-size histograms.
+ */
+public interface PullMetrics {
+    /**
+     * @param latencyMillis time from the release of a pull to the refresh being started
+     */
+    void onPullLatency(long latencyMillis);
+
+    /**
+     * @param durationMillis time from the refresh being started to refreshDone
+     */
+    void onRefreshDuration(long durationMillis);
+
+    /**
+     * @param durationMillis time the refresh layout took to settle after a release or refreshDone
+     */
+    void onSettleDuration(long durationMillis);
+
+    /**
+     * Called once per pull gesture, from the start of dragging to its release or cancellation.
+     *
+     * @param moveEvents       number of move events which moved the refresh layout
+     * @param layoutPasses     number of layout passes of the pull to refresh layout
+     * @param frames           number of frames drawn, 0 if frames can not be observed before Jelly Bean
+     * @param framesOverBudget number of frames which took longer than one display refresh interval
+     */
+    void onGesture(int moveEvents, int layoutPasses, int frames, int framesOverBudget);
+}
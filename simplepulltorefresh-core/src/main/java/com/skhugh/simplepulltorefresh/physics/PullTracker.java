@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.physics;
+
+import com.skhugh.simplepulltorefresh.pullresistance.DefaultPullResistance;
+import com.skhugh.simplepulltorefresh.pullresistance.PullResistance;
+import com.skhugh.simplepulltorefresh.pullresistance.PullResistanceTable;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Gesture math of a pull: the offset of the refresh layout while dragging, the resistance, the thresholds
+ * and the decision whether a released pull starts refreshing. All state is kept in primitive fields,
+ * and no method allocates once the resistance has been sampled.
+ */
+public class PullTracker {
+    private PullResistance pullResistance = new DefaultPullResistance();
+    private final PullResistanceTable pullResistanceTable = new PullResistanceTable();
+    private int thresholdHeight;
+    private int maxHeight;
+    private int preArmThresholdHeight = 0;
+    private int refreshFlingVelocity = 0;
+    private float offset = 0;
+
+    public PullTracker(int thresholdHeight, int maxHeight) {
+        this.thresholdHeight = thresholdHeight;
+        this.maxHeight = maxHeight;
+    }
+
+    public void setPullResistance(@NotNull PullResistance pullResistance) {
+        this.pullResistance = pullResistance;
+    }
+
+    public void setThresholdHeight(int thresholdHeight) {
+        this.thresholdHeight = thresholdHeight;
+    }
+
+    public int getThresholdHeight() {
+        return thresholdHeight;
+    }
+
+    public void setMaxHeight(int maxHeight) {
+        this.maxHeight = maxHeight;
+    }
+
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * @param preArmThresholdHeight offset at which a refresh can be prepared, 0 to disable
+     */
+    public void setPreArmThresholdHeight(int preArmThresholdHeight) {
+        this.preArmThresholdHeight = preArmThresholdHeight;
+    }
+
+    /**
+     * @param refreshFlingVelocity downward velocity in px per second which starts refreshing on release
+     *                             even below the threshold height, 0 to disable
+     */
+    public void setRefreshFlingVelocity(int refreshFlingVelocity) {
+        this.refreshFlingVelocity = refreshFlingVelocity;
+    }
+
+    /**
+     * Starts tracking a pull from the given offset, e.g. where a running settle was caught.
+     */
+    public void startPull(float offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * Applies a finger movement to the offset, taking the resistance into account.
+     *
+     * @param dy finger movement in px, positive values pull down
+     * @return new offset in px, between 0 and the max height
+     */
+    public float pull(float dy) {
+        // Only samples the resistance again when it, the threshold or the max height changed
+        pullResistanceTable.update(pullResistance, thresholdHeight, maxHeight);
+        offset = pullResistanceTable.applyMovement(offset, dy);
+        return offset;
+    }
+
+    public float getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns how far the given offset is towards the threshold height.
+     *
+     * @return 0 at the initial position and 1 at the threshold height or beyond
+     */
+    public float getProgress(float offset) {
+        return thresholdHeight > 0 ? Math.min(1f, Math.max(0f, offset / thresholdHeight)) : 1f;
+    }
+
+    public boolean isPastThreshold(float offset) {
+        return offset >= thresholdHeight;
+    }
+
+    public boolean isPastPreArmThreshold(float offset) {
+        return preArmThresholdHeight > 0 && offset >= preArmThresholdHeight;
+    }
+
+    /**
+     * Returns whether releasing a pull at the given offset and velocity should start refreshing.
+     *
+     * @param offset   offset in px at release
+     * @param velocity velocity in px per second at release, positive values move down
+     */
+    public boolean shouldStartRefreshing(float offset, float velocity) {
+        return isPastThreshold(offset) || (refreshFlingVelocity > 0 && velocity >= refreshFlingVelocity);
+    }
+}
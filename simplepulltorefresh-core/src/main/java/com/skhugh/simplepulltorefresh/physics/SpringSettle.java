@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.physics;
+
+/**
+ * Critically damped spring that moves an offset to a target offset.
+ * <p>
+ * The position is evaluated in closed form from the start time, so dropped frames do not change the path,
+ * and the spring can be retargeted or cancelled at any time while keeping its current velocity.
+ * Times are passed in by the caller, so this has no dependency on a clock or a frame source.
+ */
+public class SpringSettle {
+    private static final float DEFAULT_STIFFNESS = 600f;
+    private static final float REST_OFFSET_THRESHOLD = 0.5f;
+    private static final float REST_VELOCITY_THRESHOLD = 20f;
+
+    private float angularFrequency = (float) Math.sqrt(DEFAULT_STIFFNESS);
+
+    private boolean running = false;
+    private long startTime;
+    private float startDisplacement;
+    private float startVelocity;
+    private int targetOffset;
+    private float currentOffset;
+    private float currentVelocity;
+
+    /**
+     * Sets the stiffness of the spring. Higher values settle faster.
+     *
+     * @param stiffness stiffness of the spring, must be positive
+     */
+    public void setStiffness(float stiffness) {
+        angularFrequency = (float) Math.sqrt(stiffness);
+    }
+
+    /**
+     * Starts moving from fromOffset to toOffset. If the spring is already running it is retargeted.
+     *
+     * @param fromOffset offset to start from in px
+     * @param toOffset   offset to settle at in px
+     * @param velocity   initial velocity in px per second, positive values move the offset down
+     * @param timeMillis current time in ms
+     */
+    public void start(float fromOffset, int toOffset, float velocity, long timeMillis) {
+        startTime = timeMillis;
+        startDisplacement = fromOffset - toOffset;
+        startVelocity = velocity;
+        targetOffset = toOffset;
+        currentOffset = fromOffset;
+        currentVelocity = velocity;
+        running = true;
+    }
+
+    /**
+     * Moves the spring to the given time.
+     * The spring stops at the target offset once it is at rest, or when it would overshoot below 0.
+     *
+     * @param timeMillis current time in ms
+     * @return true if the spring is still moving, false if it came to rest at the target offset
+     */
+    public boolean update(long timeMillis) {
+        if (!running) {
+            return false;
+        }
+
+        float time = (timeMillis - startTime) / 1000f;
+        // x(t) = (x0 + (v0 + w * x0) * t) * e^(-w * t)
+        float decay = (float) Math.exp(-angularFrequency * time);
+        float b = startVelocity + angularFrequency * startDisplacement;
+        float displacement = (startDisplacement + b * time) * decay;
+        currentVelocity = (startVelocity - angularFrequency * b * time) * decay;
+        currentOffset = targetOffset + displacement;
+
+        if ((Math.abs(displacement) < REST_OFFSET_THRESHOLD && Math.abs(currentVelocity) < REST_VELOCITY_THRESHOLD)
+                || currentOffset < 0) {
+            end();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stops the spring where it is.
+     */
+    public void cancel() {
+        running = false;
+    }
+
+    /**
+     * Stops the spring and jumps to the target offset.
+     */
+    public void end() {
+        running = false;
+        currentOffset = targetOffset;
+        currentVelocity = 0;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getTargetOffset() {
+        return targetOffset;
+    }
+
+    public float getCurrentOffset() {
+        return currentOffset;
+    }
+
+    public float getCurrentVelocity() {
+        return currentVelocity;
+    }
+}
@@ -17,25 +17,31 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
-package com.skhugh.simplepulltorefresh.layoutanimation;
+package com.skhugh.simplepulltorefresh.pullresistance;
 
-import android.view.View;
-import android.view.ViewGroup;
-import android.view.animation.Transformation;
+/**
+ * iOS style rubber band which approaches the max height but never reaches it,
+ * as the offset is (1 - 1 / (pullDistance * coefficient / maxHeight + 1)) * maxHeight.
+ */
+public class AsymptoticPullResistance implements PullResistance {
+    private static final float DEFAULT_COEFFICIENT = 0.55f;
+
+    private final float coefficient;
 
-import com.skhugh.simplepulltorefresh.ChildViewTopMarginCalculator;
+    public AsymptoticPullResistance() {
+        this(DEFAULT_COEFFICIENT);
+    }
 
-public class ChildViewAnimation extends LayoutAnimation {
-    public ChildViewAnimation(ChildViewTopMarginCalculator childViewTopMarginCalculator, View targetView,
-            int refreshLayoutHeight) {
-        super(childViewTopMarginCalculator, targetView, refreshLayoutHeight);
+    /**
+     * @param coefficient movement ratio at the start of the pull, between 0 and 1
+     */
+    public AsymptoticPullResistance(float coefficient) {
+        this.coefficient = coefficient;
     }
 
     @Override
-    protected void applyTransformation(float interpolatedTime, Transformation t) {
-        ViewGroup.MarginLayoutParams params = (ViewGroup.MarginLayoutParams) targetViewWeakRef.get().getLayoutParams();
-        params.topMargin = childViewTopMarginCalculatorWeakRef.get()
-                .calculateNewTopMarginAtInterpolatedTime(refreshLayoutHeight, interpolatedTime);
-        targetViewWeakRef.get().setLayoutParams(params);
+    public float getMovementRatio(float refreshLayoutOffset, int thresholdHeight, int maxHeight) {
+        float remaining = 1f - refreshLayoutOffset / maxHeight;
+        return coefficient * remaining * remaining;
     }
 }
@@ -0,0 +1,43 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.pullresistance;
+
+/**
+ * Moves the refresh layout by a fixed ratio of the finger movement all the way down.
+ */
+public class LinearPullResistance implements PullResistance {
+    private final float movementRatio;
+
+    public LinearPullResistance() {
+        this(1f);
+    }
+
+    /**
+     * @param movementRatio ratio of the finger movement to apply, between 0 and 1
+     */
+    public LinearPullResistance(float movementRatio) {
+        this.movementRatio = movementRatio;
+    }
+
+    @Override
+    public float getMovementRatio(float refreshLayoutOffset, int thresholdHeight, int maxHeight) {
+        return movementRatio;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.pullresistance;
+
+/**
+ * Defines how hard it is to pull the refresh layout down.
+ * <p>
+ * The curve is sampled once into a {@link PullResistanceTable} whenever the threshold or the max height changes,
+ * so implementations may use any math they like.
+ */
+public interface PullResistance {
+    /**
+     * Returns the ratio of a finger movement that moves the refresh layout at the given offset.
+     * 1 moves the refresh layout with the finger, smaller values make it harder to pull.
+     *
+     * @param refreshLayoutOffset current height of the refresh layout in px, between 0 and maxHeight
+     * @param thresholdHeight     threshold height of the refresh layout to start refreshing in px
+     * @param maxHeight           max height of the refresh layout in px
+     * @return ratio of the finger movement to apply, between 0 and 1
+     */
+    float getMovementRatio(float refreshLayoutOffset, int thresholdHeight, int maxHeight);
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.pullresistance;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link PullResistance} sampled at evenly spaced offsets, so that applying a finger movement only costs
+ * an array read and a linear interpolation. The samples are taken again only when the resistance,
+ * the threshold height or the max height changes.
+ */
+public class PullResistanceTable {
+    private static final int SAMPLE_COUNT = 256;
+
+    private final float[] movementRatios = new float[SAMPLE_COUNT + 1];
+    private PullResistance pullResistance;
+    private int thresholdHeight = -1;
+    private int maxHeight = -1;
+    private float samplesPerPx;
+
+    /**
+     * Samples pullResistance again if any of the parameters changed since the last call.
+     */
+    public void update(@NotNull PullResistance pullResistance, int thresholdHeight, int maxHeight) {
+        if (pullResistance == this.pullResistance && thresholdHeight == this.thresholdHeight
+                && maxHeight == this.maxHeight) {
+            return;
+        }
+
+        this.pullResistance = pullResistance;
+        this.thresholdHeight = thresholdHeight;
+        this.maxHeight = maxHeight;
+        samplesPerPx = maxHeight > 0 ? (float) SAMPLE_COUNT / maxHeight : 0;
+        for (int i = 0; i <= SAMPLE_COUNT; i++) {
+            float ratio = pullResistance.getMovementRatio((float) i * maxHeight / SAMPLE_COUNT, thresholdHeight,
+                    maxHeight);
+            movementRatios[i] = Math.max(0f, Math.min(1f, ratio));
+        }
+    }
+
+    /**
+     * Moves the refresh layout offset by dy of finger movement.
+     *
+     * @param refreshLayoutOffset current height of the refresh layout in px
+     * @param dy                  finger movement in px, positive values pull down
+     * @return new height of the refresh layout in px, between 0 and the max height
+     */
+    public float applyMovement(float refreshLayoutOffset, float dy) {
+        float newOffset = refreshLayoutOffset + dy * getMovementRatio(refreshLayoutOffset);
+        return Math.max(0f, Math.min(maxHeight, newOffset));
+    }
+
+    private float getMovementRatio(float refreshLayoutOffset) {
+        float position = refreshLayoutOffset * samplesPerPx;
+        if (position <= 0) {
+            return movementRatios[0];
+        }
+        if (position >= SAMPLE_COUNT) {
+            return movementRatios[SAMPLE_COUNT];
+        }
+        int index = (int) position;
+        float fraction = position - index;
+        return movementRatios[index] + (movementRatios[index + 1] - movementRatios[index]) * fraction;
+    }
+}
@@ -17,33 +17,30 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
-package com.skhugh.simplepulltorefresh.layoutanimation;
+package com.skhugh.simplepulltorefresh.pullresistance;
 
-import android.view.View;
-import android.view.animation.Animation;
-
-import com.skhugh.simplepulltorefresh.ChildViewTopMarginCalculator;
-
-import java.lang.ref.WeakReference;
+/**
+ * Logarithmic rubber band. The refresh layout follows the finger at first and gets harder to pull the further
+ * it is pulled, as the offset is stretch * ln(1 + pullDistance / stretch).
+ */
+public class RubberBandPullResistance implements PullResistance {
+    private static final float DEFAULT_STRETCH = 0.5f;
 
-abstract class LayoutAnimation extends Animation {
-    private static final int DEFAULT_REFRESH_LAYOUT_ANIMATION_DURATION = 300;
+    private final float stretch;
 
-    WeakReference<View> targetViewWeakRef;
-    WeakReference<ChildViewTopMarginCalculator> childViewTopMarginCalculatorWeakRef;
-    int refreshLayoutHeight;
+    public RubberBandPullResistance() {
+        this(DEFAULT_STRETCH);
+    }
 
-    LayoutAnimation(ChildViewTopMarginCalculator childViewTopMarginCalculator, View targetView,
-            int refreshLayoutHeight) {
-        childViewTopMarginCalculatorWeakRef = new WeakReference<>(childViewTopMarginCalculator);
-        targetViewWeakRef = new WeakReference<>(targetView);
-        this.refreshLayoutHeight = refreshLayoutHeight;
-        setDuration(DEFAULT_REFRESH_LAYOUT_ANIMATION_DURATION);
+    /**
+     * @param stretch how far the band stretches as a multiple of the max height, higher values pull easier
+     */
+    public RubberBandPullResistance(float stretch) {
+        this.stretch = stretch;
     }
 
     @Override
-    public boolean willChangeBounds() {
-        return true;
+    public float getMovementRatio(float refreshLayoutOffset, int thresholdHeight, int maxHeight) {
+        return (float) Math.exp(-refreshLayoutOffset / (stretch * maxHeight));
     }
 }
-
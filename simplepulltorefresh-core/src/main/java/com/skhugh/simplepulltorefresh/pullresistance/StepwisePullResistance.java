@@ -0,0 +1,52 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.pullresistance;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Changes the movement ratio in steps at multiples of the threshold height.
+ */
+public class StepwisePullResistance implements PullResistance {
+    private final float[] stepHeights;
+    private final float[] movementRatios;
+
+    /**
+     * @param stepHeights    ascending heights at which the next step starts, as multiples of the threshold height
+     * @param movementRatios movement ratios below the first step, between the steps and above the last step,
+     *                       one more than stepHeights
+     */
+    public StepwisePullResistance(@NotNull float[] stepHeights, @NotNull float[] movementRatios) {
+        if (movementRatios.length != stepHeights.length + 1) {
+            throw new IllegalArgumentException("movementRatios needs exactly one more value than stepHeights");
+        }
+        this.stepHeights = stepHeights.clone();
+        this.movementRatios = movementRatios.clone();
+    }
+
+    @Override
+    public float getMovementRatio(float refreshLayoutOffset, int thresholdHeight, int maxHeight) {
+        int step = 0;
+        while (step < stepHeights.length && refreshLayoutOffset > stepHeights[step] * thresholdHeight) {
+            step++;
+        }
+        return movementRatios[step];
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.pullstate;
+
+/**
+ * States of a {@link PullStateMachine}.
+ */
+public final class PullState {
+    /**
+     * The refresh layout is hidden and nothing is going on.
+     */
+    public static final int IDLE = 0;
+
+    /**
+     * The refresh layout is being pulled down, but not far enough to start refreshing on release.
+     */
+    public static final int DRAGGING = 1;
+
+    /**
+     * The refresh layout is pulled past the threshold height and starts refreshing on release.
+     */
+    public static final int ARMED = 2;
+
+    /**
+     * A refresh is running and the refresh layout is held at the threshold height.
+     */
+    public static final int REFRESHING = 3;
+
+    /**
+     * The refresh is done and the refresh layout is returning to its initial position.
+     */
+    public static final int SETTLING = 4;
+
+    /**
+     * The pull was released or cancelled without refreshing and the refresh layout is returning to
+     * its initial position.
+     */
+    public static final int CANCELLED = 5;
+
+    private PullState() {
+    }
+
+    public static String toString(int state) {
+        switch (state) {
+            case IDLE:
+                return "IDLE";
+            case DRAGGING:
+                return "DRAGGING";
+            case ARMED:
+                return "ARMED";
+            case REFRESHING:
+                return "REFRESHING";
+            case SETTLING:
+                return "SETTLING";
+            case CANCELLED:
+                return "CANCELLED";
+            default:
+                return "UNKNOWN(" + state + ")";
+        }
+    }
+}
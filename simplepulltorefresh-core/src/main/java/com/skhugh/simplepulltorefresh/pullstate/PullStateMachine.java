@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.pullstate;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Lifecycle of a pull, from IDLE through DRAGGING and ARMED to either REFRESHING or CANCELLED, and back to IDLE.
+ * Transitions are driven only by the offsets and gestures the owner tracks itself.
+ * A transition which is not allowed from the current state is ignored and reported by returning false.
+ */
+public class PullStateMachine {
+    private int state = PullState.IDLE;
+    private PullStateListener pullStateListener;
+
+    public void setPullStateListener(@Nullable PullStateListener pullStateListener) {
+        this.pullStateListener = pullStateListener;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public boolean isDragging() {
+        return state == PullState.DRAGGING || state == PullState.ARMED;
+    }
+
+    public boolean isRefreshing() {
+        return state == PullState.REFRESHING;
+    }
+
+    /**
+     * A new pull can start while idle and while the refresh layout is returning, but not while refreshing.
+     */
+    public boolean canStartDragging() {
+        return state == PullState.IDLE || state == PullState.SETTLING || state == PullState.CANCELLED;
+    }
+
+    public boolean startDragging() {
+        return canStartDragging() && moveTo(PullState.DRAGGING);
+    }
+
+    /**
+     * Moves between DRAGGING and ARMED as the refresh layout crosses the threshold height.
+     */
+    public boolean drag(boolean pastThreshold) {
+        return isDragging() && moveTo(pastThreshold ? PullState.ARMED : PullState.DRAGGING);
+    }
+
+    /**
+     * Ends a pull. The refresh layout either starts refreshing or returns without refreshing.
+     */
+    public boolean release(boolean startRefreshing) {
+        return isDragging() && moveTo(startRefreshing ? PullState.REFRESHING : PullState.CANCELLED);
+    }
+
+    /**
+     * Starts refreshing from any state but REFRESHING, for refreshes which are not started by a pull.
+     */
+    public boolean startRefreshing() {
+        return state != PullState.REFRESHING && moveTo(PullState.REFRESHING);
+    }
+
+    public boolean refreshDone() {
+        return state == PullState.REFRESHING && moveTo(PullState.SETTLING);
+    }
+
+    /**
+     * Called once the refresh layout is back at its initial position.
+     */
+    public boolean settled() {
+        return (state == PullState.SETTLING || state == PullState.CANCELLED) && moveTo(PullState.IDLE);
+    }
+
+    /**
+     * Returns to IDLE from any state, e.g. when the owner is detached or its configuration changes.
+     */
+    public void reset() {
+        moveTo(PullState.IDLE);
+    }
+
+    private boolean moveTo(int newState) {
+        if (state == newState) {
+            return false;
+        }
+        int previousState = state;
+        state = newState;
+        if (pullStateListener != null) {
+            pullStateListener.onPullStateChanged(previousState, newState);
+        }
+        return true;
+    }
+}
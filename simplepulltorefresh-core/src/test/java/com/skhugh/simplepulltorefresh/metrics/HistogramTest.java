@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HistogramTest {
+    @Test
+    public void countsValuesIntoInclusiveBuckets() {
+        Histogram histogram = new Histogram(new long[]{10, 20, 30});
+        histogram.record(0);
+        histogram.record(10);
+        histogram.record(11);
+        histogram.record(30);
+        histogram.record(31);
+
+        assertEquals(4, histogram.getBucketCount());
+        assertEquals(2, histogram.getBucketValueCount(0));
+        assertEquals(1, histogram.getBucketValueCount(1));
+        assertEquals(1, histogram.getBucketValueCount(2));
+        assertEquals(1, histogram.getBucketValueCount(3));
+        assertEquals(Long.MAX_VALUE, histogram.getBucketUpperBound(3));
+    }
+
+    @Test
+    public void keepsCountSumMinAndMax() {
+        Histogram histogram = Histogram.exponential(1, 8);
+        histogram.record(3);
+        histogram.record(7);
+        histogram.record(5);
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(15, histogram.getSum());
+        assertEquals(3, histogram.getMin());
+        assertEquals(7, histogram.getMax());
+        assertEquals(5, histogram.getMean(), 0.0001);
+    }
+
+    @Test
+    public void estimatesPercentilesWithBucketBounds() {
+        Histogram histogram = Histogram.exponential(1, 8);
+        for (int i = 0; i < 90; i++) {
+            histogram.record(2);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(100);
+        }
+
+        assertEquals(2, histogram.getPercentile(50));
+        assertEquals(2, histogram.getPercentile(90));
+        assertEquals(100, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        Histogram histogram = Histogram.exponential(1, 4);
+        histogram.record(1);
+        histogram.record(1000);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+        for (int i = 0; i < histogram.getBucketCount(); i++) {
+            assertEquals(0, histogram.getBucketValueCount(i));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.physics;
+
+import com.skhugh.simplepulltorefresh.pullresistance.LinearPullResistance;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PullTrackerTest {
+    private static final int THRESHOLD_HEIGHT = 300;
+    private static final int MAX_HEIGHT = 500;
+    private static final float DELTA = 2f;
+
+    private PullTracker pullTracker;
+
+    @Before
+    public void setUp() {
+        pullTracker = new PullTracker(THRESHOLD_HEIGHT, MAX_HEIGHT);
+        pullTracker.startPull(0);
+    }
+
+    @Test
+    public void followsTheFingerUpToTheThresholdHeight() {
+        for (int i = 0; i < 10; i++) {
+            pullTracker.pull(20);
+        }
+        assertEquals(200, pullTracker.getOffset(), DELTA);
+        assertEquals(200f / THRESHOLD_HEIGHT, pullTracker.getProgress(pullTracker.getOffset()), 0.01f);
+    }
+
+    @Test
+    public void movesAtAThirdOfTheFingerBeyondTheThresholdHeight() {
+        // Starts a bit past the threshold height, as the lookup table blends the step over one sample
+        pullTracker.startPull(THRESHOLD_HEIGHT + 10);
+        for (int i = 0; i < 10; i++) {
+            pullTracker.pull(15);
+        }
+        assertEquals(THRESHOLD_HEIGHT + 10 + 50, pullTracker.getOffset(), DELTA);
+    }
+
+    @Test
+    public void staysBetweenZeroAndTheMaxHeight() {
+        pullTracker.pull(-100);
+        assertEquals(0, pullTracker.getOffset(), 0);
+
+        pullTracker.setPullResistance(new LinearPullResistance());
+        pullTracker.pull(MAX_HEIGHT * 2);
+        assertEquals(MAX_HEIGHT, pullTracker.getOffset(), 0);
+    }
+
+    @Test
+    public void startsRefreshingPastTheThresholdHeight() {
+        assertFalse(pullTracker.shouldStartRefreshing(THRESHOLD_HEIGHT - 1, 0));
+        assertTrue(pullTracker.shouldStartRefreshing(THRESHOLD_HEIGHT, 0));
+    }
+
+    @Test
+    public void startsRefreshingOnAFastFlingOnlyWhenEnabled() {
+        assertFalse(pullTracker.shouldStartRefreshing(50, 5000));
+
+        pullTracker.setRefreshFlingVelocity(3000);
+        assertFalse(pullTracker.shouldStartRefreshing(50, 2999));
+        assertTrue(pullTracker.shouldStartRefreshing(50, 3000));
+    }
+
+    @Test
+    public void preArmThresholdIsDisabledByDefault() {
+        assertFalse(pullTracker.isPastPreArmThreshold(MAX_HEIGHT));
+
+        pullTracker.setPreArmThresholdHeight(100);
+        assertFalse(pullTracker.isPastPreArmThreshold(99));
+        assertTrue(pullTracker.isPastPreArmThreshold(100));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.physics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpringSettleTest {
+    private static final int FRAME_TIME = 16;
+
+    @Test
+    public void settlesAtTheTargetOffset() {
+        SpringSettle springSettle = new SpringSettle();
+        springSettle.start(300, 100, 0, 0);
+
+        long time = 0;
+        float previousOffset = 300;
+        while (springSettle.update(time += FRAME_TIME)) {
+            // Critically damped, so it never passes the target when starting at rest
+            assertTrue(springSettle.getCurrentOffset() <= previousOffset);
+            assertTrue(springSettle.getCurrentOffset() >= 100);
+            previousOffset = springSettle.getCurrentOffset();
+        }
+
+        assertFalse(springSettle.isRunning());
+        assertEquals(100, springSettle.getCurrentOffset(), 0);
+        assertEquals(0, springSettle.getCurrentVelocity(), 0);
+        assertTrue("settle took " + time + "ms", time < 1000);
+    }
+
+    @Test
+    public void startsAtTheGivenVelocity() {
+        SpringSettle springSettle = new SpringSettle();
+        springSettle.start(100, 100, 2000, 0);
+
+        assertTrue(springSettle.update(FRAME_TIME));
+        assertTrue(springSettle.getCurrentOffset() > 100);
+    }
+
+    @Test
+    public void dropsFramesWithoutChangingThePath() {
+        SpringSettle everyFrame = new SpringSettle();
+        SpringSettle everyOtherFrame = new SpringSettle();
+        everyFrame.start(0, 300, 500, 0);
+        everyOtherFrame.start(0, 300, 500, 0);
+
+        everyFrame.update(FRAME_TIME);
+        everyFrame.update(2 * FRAME_TIME);
+        everyOtherFrame.update(2 * FRAME_TIME);
+
+        assertEquals(everyFrame.getCurrentOffset(), everyOtherFrame.getCurrentOffset(), 0);
+        assertEquals(everyFrame.getCurrentVelocity(), everyOtherFrame.getCurrentVelocity(), 0);
+    }
+
+    @Test
+    public void stopsInsteadOfOvershootingBelowZero() {
+        SpringSettle springSettle = new SpringSettle();
+        springSettle.start(50, 0, -5000, 0);
+
+        long time = 0;
+        while (springSettle.update(time += FRAME_TIME)) {
+            assertTrue(springSettle.getCurrentOffset() >= 0);
+        }
+        assertEquals(0, springSettle.getCurrentOffset(), 0);
+    }
+}
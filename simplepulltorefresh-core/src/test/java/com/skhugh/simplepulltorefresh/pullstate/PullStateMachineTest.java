@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.pullstate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PullStateMachineTest {
+    private PullStateMachine pullStateMachine;
+    private final List<String> transitions = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        pullStateMachine = new PullStateMachine();
+        transitions.clear();
+        pullStateMachine.setPullStateListener(new PullStateListener() {
+            @Override
+            public void onPullStateChanged(int previousState, int newState) {
+                transitions.add(PullState.toString(previousState) + "->" + PullState.toString(newState));
+            }
+        });
+    }
+
+    @Test
+    public void pullPastThresholdRefreshesAndSettles() {
+        pullStateMachine.startDragging();
+        pullStateMachine.drag(false);
+        pullStateMachine.drag(true);
+        pullStateMachine.release(true);
+        pullStateMachine.refreshDone();
+        pullStateMachine.settled();
+
+        assertEquals(PullState.IDLE, pullStateMachine.getState());
+        assertEquals("[IDLE->DRAGGING, DRAGGING->ARMED, ARMED->REFRESHING, REFRESHING->SETTLING, SETTLING->IDLE]",
+                transitions.toString());
+    }
+
+    @Test
+    public void pullBelowThresholdIsCancelled() {
+        pullStateMachine.startDragging();
+        pullStateMachine.drag(true);
+        pullStateMachine.drag(false);
+        pullStateMachine.release(false);
+        pullStateMachine.settled();
+
+        assertEquals("[IDLE->DRAGGING, DRAGGING->ARMED, ARMED->DRAGGING, DRAGGING->CANCELLED, CANCELLED->IDLE]",
+                transitions.toString());
+    }
+
+    @Test
+    public void cannotStartDraggingWhileRefreshing() {
+        pullStateMachine.startRefreshing();
+
+        assertFalse(pullStateMachine.startDragging());
+        assertFalse(pullStateMachine.settled());
+        assertFalse(pullStateMachine.startRefreshing());
+        assertTrue(pullStateMachine.isRefreshing());
+    }
+
+    @Test
+    public void canGrabTheRefreshLayoutWhileItReturns() {
+        pullStateMachine.startDragging();
+        pullStateMachine.release(false);
+
+        assertTrue(pullStateMachine.startDragging());
+        assertTrue(pullStateMachine.isDragging());
+    }
+
+    @Test
+    public void ignoresDragAndReleaseWhenNotDragging() {
+        assertFalse(pullStateMachine.drag(true));
+        assertFalse(pullStateMachine.release(true));
+        assertFalse(pullStateMachine.refreshDone());
+        assertTrue(transitions.isEmpty());
+    }
+
+    @Test
+    public void resetReturnsToIdleFromAnyState() {
+        pullStateMachine.startDragging();
+        pullStateMachine.drag(true);
+        pullStateMachine.reset();
+
+        assertEquals(PullState.IDLE, pullStateMachine.getState());
+        assertEquals("ARMED->IDLE", transitions.get(transitions.size() - 1));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Listener for refresh tasks which are run off the main thread by {@link PullToRefreshLayout}.
+ * The layout calls {@link PullToRefreshLayout#refreshDone()} itself when the task finishes, fails or times out.
+ *
+ * @param <T> type of the result of the refresh task
+ */
+public interface AsyncPullToRefreshListener<T> {
+    /**
+     * Called on the main thread when refreshing starts.
+     *
+     * @param view child view of the {@link PullToRefreshLayout}
+     * @return task to be run on the refresh executor
+     */
+    @NonNull
+    Callable<T> onCreateRefreshTask(@Nullable View view);
+
+    /**
+     * Called on the main thread with the result of the refresh task.
+     *
+     * @param result result of the refresh task
+     */
+    void onRefreshFinished(@Nullable T result);
+
+    /**
+     * Called on the main thread when the refresh task threw, was rejected by the executor or timed out.
+     * A timeout is reported as {@link java.util.concurrent.TimeoutException}.
+     * This is not called when the task is cancelled because the refresh was ended by the layout.
+     *
+     * @param throwable cause of the failure
+     */
+    void onRefreshFailed(@NonNull Throwable throwable);
+}
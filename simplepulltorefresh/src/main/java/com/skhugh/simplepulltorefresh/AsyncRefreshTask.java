@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the task of an {@link AsyncPullToRefreshListener} on an executor and reports the outcome back
+ * to {@link PullToRefreshLayout} and the listener on the main thread.
+ */
+class AsyncRefreshTask<T> extends FutureTask<T> {
+    private final PullToRefreshLayout pullToRefreshLayout;
+    private final AsyncPullToRefreshListener<T> listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean timedOut = false;
+
+    private final Runnable timeout = new Runnable() {
+        @Override
+        public void run() {
+            timedOut = true;
+            cancel(true);
+        }
+    };
+
+    private final Runnable resultDelivery = new Runnable() {
+        @Override
+        public void run() {
+            deliverResult();
+        }
+    };
+
+    AsyncRefreshTask(@NonNull PullToRefreshLayout pullToRefreshLayout, @NonNull AsyncPullToRefreshListener<T> listener,
+            @NonNull Callable<T> callable) {
+        super(callable);
+        this.pullToRefreshLayout = pullToRefreshLayout;
+        this.listener = listener;
+    }
+
+    /**
+     * Submits the task to the executor. A timeout of 0 or less means the task is never timed out.
+     */
+    void start(@NonNull Executor executor, long timeoutMillis) {
+        if (timeoutMillis > 0) {
+            mainHandler.postDelayed(timeout, timeoutMillis);
+        }
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException e) {
+            setException(e);
+        }
+    }
+
+    @Override
+    protected void done() {
+        mainHandler.post(resultDelivery);
+    }
+
+    private void deliverResult() {
+        mainHandler.removeCallbacks(timeout);
+        if (!pullToRefreshLayout.finishRefreshTask(this)) {
+            // The refresh was already ended and this task cancelled by the layout
+            return;
+        }
+
+        T result;
+        try {
+            result = get();
+        } catch (CancellationException e) {
+            listener.onRefreshFailed(timedOut ? new TimeoutException() : e);
+            return;
+        } catch (ExecutionException e) {
+            listener.onRefreshFailed(e.getCause() != null ? e.getCause() : e);
+            return;
+        } catch (InterruptedException e) {
+            // get() does not block once the task is done
+            listener.onRefreshFailed(e);
+            return;
+        }
+        pullToRefreshLayout.markFresh();
+        listener.onRefreshFinished(result);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * Counts the frames drawn while it is running, and the frames which came later than one display refresh interval
+ * after the previous one.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+class DragFrameMonitor implements Choreographer.FrameCallback {
+    private final long frameBudgetNanos;
+    private boolean running = false;
+    private long lastFrameTimeNanos;
+    private int frames;
+    private int framesOverBudget;
+
+    /**
+     * @param refreshRate refresh rate of the display in frames per second
+     */
+    DragFrameMonitor(float refreshRate) {
+        // Half an interval of slack, so that only frames which missed a vsync count
+        frameBudgetNanos = (long) (1.5f * 1000000000L / (refreshRate > 0 ? refreshRate : 60));
+    }
+
+    void start() {
+        stop();
+        running = true;
+        lastFrameTimeNanos = 0;
+        frames = 0;
+        framesOverBudget = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void stop() {
+        if (running) {
+            running = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    int getFrames() {
+        return frames;
+    }
+
+    int getFramesOverBudget() {
+        return framesOverBudget;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) {
+            return;
+        }
+        if (lastFrameTimeNanos != 0) {
+            frames++;
+            if (frameTimeNanos - lastFrameTimeNanos > frameBudgetNanos) {
+                framesOverBudget++;
+            }
+        }
+        lastFrameTimeNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.content.Context;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.AtomicFile;
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps the time of the last successful refresh for each freshness key, so that {@link PullToRefreshLayout} can
+ * tell whether its content is still fresh, even after the process was restarted.
+ * The file is read off the main thread the first time the store is used, and content is not fresh until it has
+ * been read. Changes are written in a batch shortly after they are made, off the main thread too.
+ * This should be used on the main thread only.
+ */
+public final class FreshnessStore {
+    private static final String TAG = "FreshnessStore";
+    private static final String FILE_NAME = "simplepulltorefresh_freshness";
+    private static final int FILE_VERSION = 1;
+    private static final long WRITE_DELAY = 1000;
+
+    private static FreshnessStore instance;
+
+    private final AtomicFile file;
+    private final Executor ioExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Long> lastRefreshTimes = new HashMap<>();
+    // Keys changed before the file was read, whose stored times are out of date
+    private final Set<String> keysChangedBeforeLoad = new HashSet<>();
+    private final List<Runnable> loadCallbacks = new ArrayList<>();
+    private boolean loadStarted = false;
+    private boolean loaded = false;
+    private boolean writeScheduled = false;
+
+    private final Runnable writer = new Runnable() {
+        @Override
+        public void run() {
+            if (!loaded) {
+                // Written once the file has been read, so that no stored times are lost
+                return;
+            }
+            writeScheduled = false;
+            final Map<String, Long> snapshot = new HashMap<>(lastRefreshTimes);
+            // Reads and writes run one by one in the order they were scheduled
+            ioExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    write(snapshot);
+                }
+            });
+        }
+    };
+
+    /**
+     * Returns the freshness store of the application.
+     *
+     * @param context any context of the application
+     * @return the freshness store shared by all {@link PullToRefreshLayout}s
+     */
+    public static FreshnessStore getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new FreshnessStore(new File(context.getApplicationContext().getFilesDir(), FILE_NAME),
+                    AsyncTask.SERIAL_EXECUTOR);
+        }
+        return instance;
+    }
+
+    FreshnessStore(@NonNull File file, @NonNull Executor ioExecutor) {
+        this.file = new AtomicFile(file);
+        this.ioExecutor = ioExecutor;
+    }
+
+    /**
+     * Starts reading the file off the main thread unless it has been read already.
+     * {@link PullToRefreshLayout} calls this as soon as it has a freshness key.
+     *
+     * @param onLoaded called on the main thread once the file has been read, may be null
+     */
+    public void load(@Nullable Runnable onLoaded) {
+        if (loaded) {
+            if (onLoaded != null) {
+                mainHandler.post(onLoaded);
+            }
+            return;
+        }
+        if (onLoaded != null) {
+            loadCallbacks.add(onLoaded);
+        }
+        if (loadStarted) {
+            return;
+        }
+        loadStarted = true;
+
+        ioExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Map<String, Long> storedTimes = read();
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onLoaded(storedTimes);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Returns whether the file has been read.
+     *
+     * @return true once the stored refresh times are known
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the time of the last successful refresh for the key.
+     * Until the file has been read only refreshes of this process are known.
+     *
+     * @param key freshness key of the content
+     * @return time in ms since the epoch, or -1 if the content has never been refreshed
+     */
+    public long getLastRefreshTime(@NonNull String key) {
+        load(null);
+        Long lastRefreshTime = lastRefreshTimes.get(key);
+        return lastRefreshTime != null ? lastRefreshTime : -1;
+    }
+
+    /**
+     * Returns whether the content for the key was refreshed within ttl.
+     * Content is not fresh while the file is still being read, so this never waits for the disk.
+     *
+     * @param key freshness key of the content
+     * @param ttl time in ms for which refreshed content stays fresh
+     * @return true if the content is still fresh
+     */
+    public boolean isFresh(@NonNull String key, long ttl) {
+        long lastRefreshTime = getLastRefreshTime(key);
+        if (!loaded) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        // A last refresh time in the future means the clock was changed, so it can not be trusted
+        return lastRefreshTime >= 0 && now >= lastRefreshTime && now - lastRefreshTime < ttl;
+    }
+
+    /**
+     * Records that the content for the key was refreshed successfully just now.
+     *
+     * @param key freshness key of the content
+     */
+    public void markRefreshed(@NonNull String key) {
+        load(null);
+        if (!loaded) {
+            keysChangedBeforeLoad.add(key);
+        }
+        lastRefreshTimes.put(key, System.currentTimeMillis());
+        scheduleWrite();
+    }
+
+    /**
+     * Forgets the last refresh for the key, so that its content is treated as stale.
+     *
+     * @param key freshness key of the content
+     */
+    public void invalidate(@NonNull String key) {
+        load(null);
+        if (!loaded) {
+            keysChangedBeforeLoad.add(key);
+            // The key may be in the file, which is written again once it has been read
+            lastRefreshTimes.remove(key);
+            scheduleWrite();
+        } else if (lastRefreshTimes.remove(key) != null) {
+            scheduleWrite();
+        }
+    }
+
+    private void scheduleWrite() {
+        if (!writeScheduled) {
+            writeScheduled = true;
+            mainHandler.postDelayed(writer, WRITE_DELAY);
+        }
+    }
+
+    private void onLoaded(Map<String, Long> storedTimes) {
+        loaded = true;
+        for (Map.Entry<String, Long> entry : storedTimes.entrySet()) {
+            if (!keysChangedBeforeLoad.contains(entry.getKey())) {
+                lastRefreshTimes.put(entry.getKey(), entry.getValue());
+            }
+        }
+        keysChangedBeforeLoad.clear();
+        if (writeScheduled) {
+            mainHandler.removeCallbacks(writer);
+            writer.run();
+        }
+        for (int i = 0, size = loadCallbacks.size(); i < size; i++) {
+            loadCallbacks.get(i).run();
+        }
+        loadCallbacks.clear();
+    }
+
+    /**
+     * Called on the io executor.
+     */
+    private Map<String, Long> read() {
+        Map<String, Long> storedTimes = new HashMap<>();
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(file.openRead());
+            if (inputStream.readInt() != FILE_VERSION) {
+                return storedTimes;
+            }
+            for (int i = 0, size = inputStream.readInt(); i < size; i++) {
+                String key = inputStream.readUTF();
+                storedTimes.put(key, inputStream.readLong());
+            }
+        } catch (FileNotFoundException e) {
+            // Nothing has been refreshed yet
+        } catch (IOException e) {
+            Log.d(TAG, "Failed to read freshness: " + e.getMessage());
+            storedTimes.clear();
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    Log.d(TAG, e.getMessage());
+                }
+            }
+        }
+        return storedTimes;
+    }
+
+    private void write(Map<String, Long> snapshot) {
+        FileOutputStream fileOutputStream = null;
+        try {
+            fileOutputStream = file.startWrite();
+            DataOutputStream outputStream = new DataOutputStream(fileOutputStream);
+            outputStream.writeInt(FILE_VERSION);
+            outputStream.writeInt(snapshot.size());
+            for (Map.Entry<String, Long> entry : snapshot.entrySet()) {
+                outputStream.writeUTF(entry.getKey());
+                outputStream.writeLong(entry.getValue());
+            }
+            outputStream.flush();
+            file.finishWrite(fileOutputStream);
+        } catch (IOException e) {
+            Log.d(TAG, "Failed to write freshness: " + e.getMessage());
+            if (fileOutputStream != null) {
+                file.failWrite(fileOutputStream);
+            }
+        }
+    }
+}
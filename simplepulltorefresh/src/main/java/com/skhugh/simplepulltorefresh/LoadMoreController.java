@@ -0,0 +1,311 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.AbsListView;
+
+import com.skhugh.simplepulltorefresh.refreshicon.RefreshIcon;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Bottom edge of a {@link PullToRefreshLayout}: notifies its {@link LoadMoreListener} when the RecyclerView or
+ * AbsListView child is scrolled within prefetchDistance items of its end, one load at a time, and shows a footer
+ * with a {@link RefreshIcon} while loading. Failed loads are retried with an exponential backoff.
+ * <p>
+ * Scrolling is observed without taking any listener slot of the child view away from the app: RecyclerView through
+ * an added OnScrollListener, and AbsListView through the ViewTreeObserver, as its OnScrollListener and
+ * OnScrollChangeListener can only be set once. The ViewTreeObserver reports any scroll in the window, so those calls
+ * are dropped unless the last visible position or the item count of the list changed.
+ * While the footer is shown, the child view is shrunk by its height with a bottom margin so that it does not cover
+ * the last items.
+ */
+class LoadMoreController {
+    static final int DEFAULT_PREFETCH_DISTANCE = 5;
+    static final int DEFAULT_RETRY_DELAY = 1000;
+    private static final int MAX_RETRY_DELAY_SHIFT = 5;
+
+    private final PullToRefreshLayout pullToRefreshLayout;
+    private WeakReference<View> childViewWeakRef;
+    private LoadMoreListener loadMoreListener;
+    private int prefetchDistance = DEFAULT_PREFETCH_DISTANCE;
+    private int retryDelay = DEFAULT_RETRY_DELAY;
+    private boolean loading = false;
+    private boolean hasMore = true;
+    private int failureCount = 0;
+    private long retryTime = 0;
+    // Child view the scroll listener is registered on, or null
+    private View scrollListenerView;
+    private int lastCheckedPosition = -1;
+    private int lastCheckedItemCount = -1;
+    private final RecyclerView.OnScrollListener recyclerViewScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            loadMoreIfNeeded();
+        }
+    };
+    private final ViewTreeObserver.OnScrollChangedListener windowScrollChangedListener =
+            new ViewTreeObserver.OnScrollChangedListener() {
+                @Override
+                public void onScrollChanged() {
+                    View childView = getChildView();
+                    if (childView instanceof AbsListView) {
+                        AbsListView absListView = (AbsListView) childView;
+                        int lastVisiblePosition = absListView.getLastVisiblePosition();
+                        int itemCount = absListView.getCount();
+                        if (lastVisiblePosition == lastCheckedPosition && itemCount == lastCheckedItemCount) {
+                            // Something else in the window scrolled
+                            return;
+                        }
+                        lastCheckedPosition = lastVisiblePosition;
+                        lastCheckedItemCount = itemCount;
+                    }
+                    loadMoreIfNeeded();
+                }
+            };
+    private ViewGroup footer;
+    private RefreshIcon loadMoreIcon;
+    private boolean checkScheduled = false;
+    private final Runnable checker = new Runnable() {
+        @Override
+        public void run() {
+            checkScheduled = false;
+            loadMoreIfNeeded();
+        }
+    };
+
+    LoadMoreController(PullToRefreshLayout pullToRefreshLayout) {
+        this.pullToRefreshLayout = pullToRefreshLayout;
+    }
+
+    void setChildView(View childView) {
+        unregisterScrollListener();
+        childViewWeakRef = new WeakReference<>(childView);
+        updateScrollListener();
+    }
+
+    void setLoadMoreListener(@Nullable LoadMoreListener loadMoreListener) {
+        this.loadMoreListener = loadMoreListener;
+        loading = false;
+        hideFooter();
+        updateScrollListener();
+        scheduleCheck(0);
+    }
+
+    void setPrefetchDistance(int prefetchDistance) {
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    void setRetryDelay(int retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    void setLoadMoreIcon(RefreshIcon loadMoreIcon) {
+        if (footer != null && this.loadMoreIcon != null) {
+            footer.removeView(this.loadMoreIcon.getIconView());
+        }
+        this.loadMoreIcon = loadMoreIcon;
+        if (loading) {
+            showFooter();
+        }
+    }
+
+    boolean isLoading() {
+        return loading;
+    }
+
+    void done() {
+        if (!loading) {
+            return;
+        }
+        loading = false;
+        failureCount = 0;
+        retryTime = 0;
+        hideFooter();
+        // A short page may not fill the list, so there may be no scroll to trigger the next load
+        scheduleCheck(0);
+    }
+
+    void failed() {
+        if (!loading) {
+            return;
+        }
+        loading = false;
+        failureCount++;
+        long delay = (long) retryDelay << Math.min(failureCount - 1, MAX_RETRY_DELAY_SHIFT);
+        retryTime = SystemClock.uptimeMillis() + delay;
+        hideFooter();
+        scheduleCheck(delay);
+    }
+
+    void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+        if (hasMore) {
+            failureCount = 0;
+            retryTime = 0;
+            scheduleCheck(0);
+        }
+    }
+
+    void onAttachedToWindow() {
+        updateScrollListener();
+    }
+
+    void onDetachedFromWindow() {
+        unregisterScrollListener();
+        if (checkScheduled) {
+            checkScheduled = false;
+            pullToRefreshLayout.removeCallbacks(checker);
+        }
+    }
+
+    @Nullable
+    private View getChildView() {
+        return childViewWeakRef != null ? childViewWeakRef.get() : null;
+    }
+
+    private void updateScrollListener() {
+        View childView = getChildView();
+        if (loadMoreListener == null || childView == null || !ViewCompat.isAttachedToWindow(pullToRefreshLayout)) {
+            unregisterScrollListener();
+            return;
+        }
+        if (scrollListenerView == childView) {
+            return;
+        }
+
+        unregisterScrollListener();
+        if (childView instanceof RecyclerView) {
+            ((RecyclerView) childView).addOnScrollListener(recyclerViewScrollListener);
+        } else if (childView instanceof AbsListView) {
+            lastCheckedPosition = -1;
+            lastCheckedItemCount = -1;
+            pullToRefreshLayout.getViewTreeObserver().addOnScrollChangedListener(windowScrollChangedListener);
+        } else {
+            return;
+        }
+        scrollListenerView = childView;
+    }
+
+    private void unregisterScrollListener() {
+        if (scrollListenerView == null) {
+            return;
+        }
+        if (scrollListenerView instanceof RecyclerView) {
+            ((RecyclerView) scrollListenerView).removeOnScrollListener(recyclerViewScrollListener);
+        } else {
+            pullToRefreshLayout.getViewTreeObserver().removeOnScrollChangedListener(windowScrollChangedListener);
+        }
+        scrollListenerView = null;
+    }
+
+    private void scheduleCheck(long delay) {
+        if (loadMoreListener == null) {
+            return;
+        }
+        if (checkScheduled) {
+            pullToRefreshLayout.removeCallbacks(checker);
+        }
+        checkScheduled = true;
+        pullToRefreshLayout.postDelayed(checker, delay);
+    }
+
+    private void loadMoreIfNeeded() {
+        if (loading || !hasMore || loadMoreListener == null || pullToRefreshLayout.isRefreshing()
+                || SystemClock.uptimeMillis() < retryTime) {
+            return;
+        }
+        View childView = getChildView();
+        int remainingItemCount = getRemainingItemCount(childView);
+        if (remainingItemCount < 0 || remainingItemCount > prefetchDistance) {
+            return;
+        }
+
+        loading = true;
+        showFooter();
+        loadMoreListener.onLoadMore(childView);
+    }
+
+    /**
+     * @return number of items after the last visible one, or -1 if the child view has no items or is not a list
+     */
+    private static int getRemainingItemCount(@Nullable View childView) {
+        if (childView instanceof RecyclerView) {
+            RecyclerView recyclerView = (RecyclerView) childView;
+            RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+            if (layoutManager == null || layoutManager.getItemCount() == 0) {
+                return -1;
+            }
+            // Children are not in adapter order for reversed or staggered layouts
+            int lastVisiblePosition = RecyclerView.NO_POSITION;
+            for (int i = 0, childCount = recyclerView.getChildCount(); i < childCount; i++) {
+                lastVisiblePosition = Math.max(lastVisiblePosition,
+                        recyclerView.getChildAdapterPosition(recyclerView.getChildAt(i)));
+            }
+            return lastVisiblePosition == RecyclerView.NO_POSITION
+                    ? -1 : layoutManager.getItemCount() - 1 - lastVisiblePosition;
+        }
+        if (childView instanceof AbsListView) {
+            AbsListView absListView = (AbsListView) childView;
+            int count = absListView.getCount();
+            int lastVisiblePosition = absListView.getLastVisiblePosition();
+            return count == 0 || lastVisiblePosition < 0 ? -1 : count - 1 - lastVisiblePosition;
+        }
+        return -1;
+    }
+
+    private void showFooter() {
+        if (footer == null) {
+            footer = pullToRefreshLayout.createLoadMoreFooter();
+        }
+        if (loadMoreIcon == null) {
+            loadMoreIcon = pullToRefreshLayout.createLoadMoreIcon();
+        }
+        if (loadMoreIcon.getIconView().getParent() != footer) {
+            footer.addView(loadMoreIcon.getIconView());
+        }
+        footer.setVisibility(View.VISIBLE);
+        if (!loadMoreIcon.isSpinning()) {
+            loadMoreIcon.spin();
+        }
+        // The height is needed now to make room for the footer in the same layout pass
+        footer.measure(View.MeasureSpec.makeMeasureSpec(pullToRefreshLayout.getWidth(), View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        pullToRefreshLayout.setChildViewBottomInset(footer.getMeasuredHeight());
+    }
+
+    private void hideFooter() {
+        if (footer != null && footer.getVisibility() != View.GONE) {
+            footer.setVisibility(View.GONE);
+            pullToRefreshLayout.setChildViewBottomInset(0);
+        }
+        if (loadMoreIcon != null) {
+            // Stops spinning
+            loadMoreIcon.setProgress(0);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.support.annotation.Nullable;
+import android.view.View;
+
+/**
+ * Listener to load the next page of a RecyclerView or AbsListView child before the user reaches its end.
+ * Called on the main thread. Call {@link PullToRefreshLayout#loadMoreDone()} or
+ * {@link PullToRefreshLayout#loadMoreFailed()} once the page is loaded, and
+ * {@link PullToRefreshLayout#setHasMoreToLoad(boolean)} with false after the last page.
+ */
+public interface LoadMoreListener {
+    /**
+     * Called when the user scrolled within loadMorePrefetchDistance items of the end.
+     * It is not called again until the current load is done or failed.
+     *
+     * @param view child view of the {@link PullToRefreshLayout}
+     */
+    void onLoadMore(@Nullable View view);
+}
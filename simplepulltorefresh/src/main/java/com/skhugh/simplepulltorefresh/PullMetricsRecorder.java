@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+import android.view.WindowManager;
+
+import com.skhugh.simplepulltorefresh.metrics.NoOpPullMetrics;
+import com.skhugh.simplepulltorefresh.metrics.PullMetrics;
+
+/**
+ * Measures pulls and refreshes of a {@link PullToRefreshLayout} and reports them to its {@link PullMetrics}.
+ * Every method returns right away while the metrics are {@link NoOpPullMetrics}, so nothing is measured by default.
+ * Times are in {@link SystemClock#uptimeMillis()}, the time base of MotionEvent.
+ */
+class PullMetricsRecorder {
+    private final Context context;
+    private PullMetrics pullMetrics = NoOpPullMetrics.INSTANCE;
+    private boolean enabled = false;
+    private DragFrameMonitor dragFrameMonitor;
+
+    private boolean gestureInProgress = false;
+    private int gestureMoveEvents;
+    private int gestureLayoutPasses;
+    private long releaseTime = -1;
+    private long refreshStartTime = -1;
+    private long settleStartTime = -1;
+
+    PullMetricsRecorder(Context context) {
+        this.context = context;
+    }
+
+    void setPullMetrics(@Nullable PullMetrics pullMetrics) {
+        stop();
+        this.pullMetrics = pullMetrics != null ? pullMetrics : NoOpPullMetrics.INSTANCE;
+        enabled = !(this.pullMetrics instanceof NoOpPullMetrics);
+    }
+
+    void onDragStart() {
+        if (!enabled) {
+            return;
+        }
+        gestureInProgress = true;
+        gestureMoveEvents = 0;
+        gestureLayoutPasses = 0;
+        releaseTime = -1;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (dragFrameMonitor == null) {
+                WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+                dragFrameMonitor = new DragFrameMonitor(windowManager.getDefaultDisplay().getRefreshRate());
+            }
+            dragFrameMonitor.start();
+        }
+    }
+
+    void onMove() {
+        if (gestureInProgress) {
+            gestureMoveEvents++;
+        }
+    }
+
+    void onLayoutPass() {
+        if (gestureInProgress) {
+            gestureLayoutPasses++;
+        }
+    }
+
+    /**
+     * @param releaseTime time of the release in uptime millis, or -1 if the gesture was cancelled
+     */
+    void onDragEnd(long releaseTime) {
+        if (!gestureInProgress) {
+            return;
+        }
+        gestureInProgress = false;
+        this.releaseTime = releaseTime;
+        int frames = 0;
+        int framesOverBudget = 0;
+        if (dragFrameMonitor != null) {
+            dragFrameMonitor.stop();
+            frames = dragFrameMonitor.getFrames();
+            framesOverBudget = dragFrameMonitor.getFramesOverBudget();
+        }
+        pullMetrics.onGesture(gestureMoveEvents, gestureLayoutPasses, frames, framesOverBudget);
+    }
+
+    void onStartRefresh() {
+        if (!enabled) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        if (releaseTime >= 0) {
+            pullMetrics.onPullLatency(now - releaseTime);
+            releaseTime = -1;
+        }
+        refreshStartTime = now;
+    }
+
+    void onRefreshDone() {
+        if (refreshStartTime >= 0) {
+            pullMetrics.onRefreshDuration(SystemClock.uptimeMillis() - refreshStartTime);
+            refreshStartTime = -1;
+        }
+    }
+
+    /**
+     * A settle which is retargeted while running is measured from its first start.
+     */
+    void onSettleStart() {
+        if (enabled && settleStartTime < 0) {
+            settleStartTime = SystemClock.uptimeMillis();
+        }
+    }
+
+    void onSettleEnd() {
+        if (settleStartTime >= 0) {
+            pullMetrics.onSettleDuration(SystemClock.uptimeMillis() - settleStartTime);
+            settleStartTime = -1;
+        }
+    }
+
+    void onSettleCancel() {
+        settleStartTime = -1;
+    }
+
+    /**
+     * Drops everything which is being measured, e.g. when the layout is detached.
+     */
+    void stop() {
+        if (dragFrameMonitor != null) {
+            dragFrameMonitor.stop();
+        }
+        gestureInProgress = false;
+        releaseTime = -1;
+        refreshStartTime = -1;
+        settleStartTime = -1;
+    }
+}
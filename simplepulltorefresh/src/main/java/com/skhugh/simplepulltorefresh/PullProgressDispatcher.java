@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+
+import com.skhugh.simplepulltorefresh.physics.PullTracker;
+import com.skhugh.simplepulltorefresh.pullstate.PullState;
+
+/**
+ * Collects offset and state changes of a {@link PullToRefreshLayout} and delivers them to its
+ * {@link PullProgressListener} at most once per frame. Changes made by the layout's own frame callbacks are delivered
+ * at the end of that frame callback, so the listener is in sync with the refresh layout. Other changes are delivered
+ * on the next animation frame. Only primitive values are kept, so delivering does not allocate.
+ */
+class PullProgressDispatcher implements Runnable {
+    private final View hostView;
+    private final PullTracker pullTracker;
+    private PullProgressListener pullProgressListener;
+    private boolean pending = false;
+    private boolean scheduled = false;
+    private int offset = 0;
+    private int state = PullState.IDLE;
+    private int deliveredOffset = 0;
+    private int deliveredState = PullState.IDLE;
+
+    PullProgressDispatcher(View hostView, PullTracker pullTracker) {
+        this.hostView = hostView;
+        this.pullTracker = pullTracker;
+    }
+
+    void setPullProgressListener(@Nullable PullProgressListener pullProgressListener) {
+        this.pullProgressListener = pullProgressListener;
+        // The new listener gets the current values on the next frame
+        deliveredOffset = -1;
+        update(offset, state);
+    }
+
+    void update(int offset, int state) {
+        this.offset = offset;
+        this.state = state;
+        if (pullProgressListener == null) {
+            return;
+        }
+        pending = offset != deliveredOffset || state != deliveredState;
+        if (pending && !scheduled) {
+            scheduled = true;
+            ViewCompat.postOnAnimation(hostView, this);
+        }
+    }
+
+    /**
+     * Delivers a pending change right away. Called at the end of the layout's own frame callbacks.
+     */
+    void flush() {
+        if (scheduled) {
+            scheduled = false;
+            hostView.removeCallbacks(this);
+        }
+        deliver();
+    }
+
+    /**
+     * Drops a scheduled delivery, e.g. when the layout is detached.
+     */
+    void cancel() {
+        if (scheduled) {
+            scheduled = false;
+            hostView.removeCallbacks(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        scheduled = false;
+        deliver();
+    }
+
+    private void deliver() {
+        if (!pending || pullProgressListener == null) {
+            return;
+        }
+        pending = false;
+        deliveredOffset = offset;
+        deliveredState = state;
+        pullProgressListener.onPullProgress(offset, pullTracker.getProgress(offset), state);
+    }
+}
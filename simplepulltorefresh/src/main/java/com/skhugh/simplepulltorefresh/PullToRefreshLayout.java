@@ -23,76 +23,225 @@ import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.graphics.drawable.Drawable;
-import android.os.Handler;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.v4.content.ContextCompat;
+import android.support.v4.view.NestedScrollingChild;
+import android.support.v4.view.NestedScrollingChildHelper;
+import android.support.v4.view.NestedScrollingParent;
+import android.support.v4.view.NestedScrollingParentHelper;
+import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
 import android.view.ViewGroup;
-import android.view.ViewTreeObserver;
-import android.widget.AdapterView;
+import android.widget.AbsListView;
 import android.widget.FrameLayout;
-import android.widget.ListView;
 import android.widget.RelativeLayout;
 
-import com.skhugh.simplepulltorefresh.layoutanimation.ChildViewAnimation;
-import com.skhugh.simplepulltorefresh.layoutanimation.RefreshLayoutAnimation;
+import com.skhugh.simplepulltorefresh.layoutanimation.SettleAnimation;
+import com.skhugh.simplepulltorefresh.metrics.PullMetrics;
+import com.skhugh.simplepulltorefresh.physics.PullTracker;
+import com.skhugh.simplepulltorefresh.pullresistance.AsymptoticPullResistance;
+import com.skhugh.simplepulltorefresh.pullresistance.DefaultPullResistance;
+import com.skhugh.simplepulltorefresh.pullresistance.LinearPullResistance;
+import com.skhugh.simplepulltorefresh.pullresistance.PullResistance;
+import com.skhugh.simplepulltorefresh.pullresistance.RubberBandPullResistance;
+import com.skhugh.simplepulltorefresh.pullstate.PullState;
+import com.skhugh.simplepulltorefresh.pullstate.PullStateListener;
+import com.skhugh.simplepulltorefresh.pullstate.PullStateMachine;
 import com.skhugh.simplepulltorefresh.refreshicon.DefaultRefreshIcon;
 import com.skhugh.simplepulltorefresh.refreshicon.RefreshIcon;
 import com.skhugh.simplepulltorefresh.refreshicon.RefreshIconFactory;
 
 import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
+
+public class PullToRefreshLayout extends FrameLayout
+        implements SettleAnimationTarget, PullToRefreshStyler, NestedScrollingParent, NestedScrollingChild {
+    /**
+     * Pushes the child view down by changing its top margin and resizes the refresh layout while pulling.
+     */
+    public static final int DRAG_MODE_MARGIN = 0;
+
+    /**
+     * Moves the child view and the refresh layout with translationY while pulling.
+     * No layout pass is requested from the start of a pull until the end of the settle animation.
+     */
+    public static final int DRAG_MODE_TRANSLATION = 1;
+
+    /**
+     * Keeps the child view in place and slides the refresh layout in over it like a banner.
+     * The child view is neither moved nor measured again while pulling.
+     */
+    public static final int DRAG_MODE_OVERLAY = 2;
+
+    /**
+     * Puts the child view on a hardware layer while it is moved in translation mode.
+     */
+    public static final int HARDWARE_LAYER_CONTENT = 1;
+
+    /**
+     * Puts the refresh layout on a hardware layer while it is moved in translation or overlay mode.
+     * The layer is drawn again whenever the refresh icon changes.
+     */
+    public static final int HARDWARE_LAYER_HEADER = 1 << 1;
 
-public class PullToRefreshLayout extends FrameLayout implements ChildViewTopMarginCalculator, PullToRefreshStyler {
     private static final String TAG = "PullToRefreshLayout";
+    private static final int INVALID_POINTER = -1;
+    private static final int NO_PENDING_DRAG_MODE = -1;
+
+    private static final String TRACE_INTERCEPT_TOUCH_EVENT = "PullToRefresh:onInterceptTouchEvent";
+    private static final String TRACE_TOUCH_EVENT = "PullToRefresh:onTouchEvent";
+    private static final String TRACE_NESTED_PRE_SCROLL = "PullToRefresh:onNestedPreScroll";
+    private static final String TRACE_NESTED_SCROLL = "PullToRefresh:onNestedScroll";
+    private static final String TRACE_MOVE_REFRESH_LAYOUT = "PullToRefresh:moveRefreshLayout";
+    private static final String TRACE_APPLY_DRAG_OFFSET = "PullToRefresh:applyDragOffset";
+    private static final String TRACE_REFRESH_ICON_PROGRESS = "PullToRefresh:spinOrSetProgressOfRefreshIcon";
+    private static final String TRACE_CREATE_REFRESH_LAYOUT = "PullToRefresh:createRefreshLayout";
+    private static final String TRACE_REFRESH = "PullToRefresh:refresh";
 
     private static final int DEFAULT_REFRESH_ICON_SPIN_DURATION = 800;
     private static final int DEFAULT_REFRESH_LAYOUT_MAX_HEIGHT = 500;
     private static final int DEFAULT_REFRESH_LAYOUT_THRESHOLD_HEIGHT = 300;
     private static final int DEFAULT_REFRESH_LAYOUT_BACKGROUND_COLOR = Color.LTGRAY;
     private static final int DEFAULT_REFRESH_ICON_COLOR = Color.DKGRAY;
-    private static final double SCROLL_GRAVITY = 1.5;
+    private static final int DEFAULT_REFRESH_TIMEOUT = 30000;
+
+    private static final int PULL_RESISTANCE_STANDARD = 0;
+    private static final int PULL_RESISTANCE_LINEAR = 1;
+    private static final int PULL_RESISTANCE_RUBBER_BAND = 2;
+    private static final int PULL_RESISTANCE_ASYMPTOTIC = 3;
 
     private RelativeLayout refreshLayout;
     private RefreshIcon refreshIcon;
     private PullToRefreshListener pullToRefreshListener;
+    private AsyncPullToRefreshListener<?> asyncPullToRefreshListener;
+    private PullToRefreshPrepareListener pullToRefreshPrepareListener;
+    private boolean refreshPrepared = false;
+    private AsyncRefreshTask<?> refreshTask;
+    private Executor refreshExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
+    private int refreshTimeout = DEFAULT_REFRESH_TIMEOUT;
+    private int minRefreshInterval = 0;
+    private long lastRefreshDoneTime = -1;
+    private String freshnessKey;
+    private int freshnessTtl = 0;
+    private boolean refreshOnAttachIfStale = false;
+    private final Runnable staleRefresher = new Runnable() {
+        @Override
+        public void run() {
+            // Run once the freshness store has been read, which may be after the layout was detached
+            if (ViewCompat.isAttachedToWindow(PullToRefreshLayout.this) && !isFresh()) {
+                startRefreshing();
+            }
+        }
+    };
     private WeakReference<View> childViewWeakRef;
-    private boolean refreshing = false;
-    private int[] initialChildViewPosition;
+    private final PullStateMachine pullStateMachine = new PullStateMachine();
     private int initialChildViewMarginTop;
+    private int initialChildViewMarginBottom;
     private boolean blockScrollWhileRefreshing = true;
+    private int dragMode = DRAG_MODE_MARGIN;
+    // Drag mode set during a pull or refresh, applied once the pull state is back to IDLE
+    private int pendingDragMode = NO_PENDING_DRAG_MODE;
+    private int hardwareLayers = 0;
+    private boolean hardwareLayersEnabled = false;
+    private boolean childViewLayerPromoted = false;
+    private int refreshLayoutOffset = 0;
+    private int childViewLayoutOffset = 0;
+    private int refreshLayoutLayoutHeight = 0;
+    private final SettleAnimation settleAnimation = new SettleAnimation(this, this);
+    private final PullMetricsRecorder pullMetricsRecorder;
+    // Async trace sections of all layouts share a name, so their cookies are counted across layouts
+    private static int lastRefreshTraceCookie = 0;
+    // Cookie of the open refresh section, or 0 if none was begun
+    private int refreshTraceCookie = 0;
+    private MarginLayoutParams emptyMarginLayoutParams;
+    private boolean lazyRefreshLayout = false;
 
     private Drawable refreshIconDrawable;
+    private int refreshIconDrawableResId = 0;
     private int refreshIconSpinDuration = DEFAULT_REFRESH_ICON_SPIN_DURATION;
     private int refreshIconColor = DEFAULT_REFRESH_ICON_COLOR;
-    private int refreshIconSize = getResources().getDimensionPixelOffset(R.dimen.refresh_icon_size);
+    private int refreshIconSize;
 
     private int refreshLayoutBackgroundColor = DEFAULT_REFRESH_LAYOUT_BACKGROUND_COLOR;
-    private int refreshLayoutPadding = getResources().getDimensionPixelSize(R.dimen.refresh_layout_padding);
-    private int refreshLayoutMaxHeight = DEFAULT_REFRESH_LAYOUT_MAX_HEIGHT;
-    private int refreshLayoutThresholdHeight = DEFAULT_REFRESH_LAYOUT_THRESHOLD_HEIGHT;
+    private int refreshLayoutPadding;
+    private final PullTracker pullTracker =
+            new PullTracker(DEFAULT_REFRESH_LAYOUT_THRESHOLD_HEIGHT, DEFAULT_REFRESH_LAYOUT_MAX_HEIGHT);
+    private final PullProgressDispatcher pullProgressDispatcher = new PullProgressDispatcher(this, pullTracker);
+    private final LoadMoreController loadMoreController = new LoadMoreController(this);
+    private RelativeLayout loadMoreFooter;
+    private PullStateListener pullStateListener;
+    private final PullStateListener pullStateForwarder = new PullStateListener() {
+        @Override
+        public void onPullStateChanged(int previousState, int newState) {
+            pullProgressDispatcher.update(refreshLayoutOffset, newState);
+            if (newState == PullState.IDLE && pendingDragMode != NO_PENDING_DRAG_MODE) {
+                int dragMode = pendingDragMode;
+                pendingDragMode = NO_PENDING_DRAG_MODE;
+                applyDragMode(dragMode);
+            }
+            if (pullStateListener != null) {
+                pullStateListener.onPullStateChanged(previousState, newState);
+            }
+        }
+    };
+
+    private final int touchSlop;
+    private final int maximumFlingVelocity;
+    private VelocityTracker velocityTracker;
+    private int activePointerId = INVALID_POINTER;
+    private float initialDownY;
+    private float lastMotionY;
+    private boolean refreshLayoutOffsetUpdateScheduled = false;
+    private final Runnable refreshLayoutOffsetUpdater = new Runnable() {
+        @Override
+        public void run() {
+            refreshLayoutOffsetUpdateScheduled = false;
+            applyDragRefreshLayoutOffset();
+            pullProgressDispatcher.flush();
+        }
+    };
 
-    private OnTouchListener childViewOnTouchListener = new ChildViewOnTouchListener();
+    private final NestedScrollingParentHelper nestedScrollingParentHelper = new NestedScrollingParentHelper(this);
+    private final NestedScrollingChildHelper nestedScrollingChildHelper = new NestedScrollingChildHelper(this);
+    private final int[] parentScrollConsumed = new int[2];
+    private final int[] parentOffsetInWindow = new int[2];
+    private boolean nestedScrollInProgress = false;
+    private float nestedFlingVelocity = 0;
 
     public PullToRefreshLayout(Context context) {
-        super(context);
+        this(context, null);
     }
 
     public PullToRefreshLayout(Context context, AttributeSet attrs) {
-        super(context, attrs);
-        if (!isInEditMode()) {
-            initializeAttributes(attrs);
-            initialize();
-        }
+        this(context, attrs, 0);
     }
 
     public PullToRefreshLayout(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
+        ViewConfiguration viewConfiguration = ViewConfiguration.get(context);
+        touchSlop = viewConfiguration.getScaledTouchSlop();
+        maximumFlingVelocity = viewConfiguration.getScaledMaximumFlingVelocity();
+        pullMetricsRecorder = new PullMetricsRecorder(context);
+        pullStateMachine.setPullStateListener(pullStateForwarder);
+        setNestedScrollingEnabled(true);
+        // Draws the refresh layout over the child view in overlay mode
+        setChildrenDrawingOrderEnabled(true);
         if (!isInEditMode()) {
+            // Attributes are read first so that the refresh layout and the refresh icon are created only once
             initializeAttributes(attrs);
-            initialize();
+            if (!lazyRefreshLayout) {
+                initialize();
+            }
         }
     }
 
@@ -105,73 +254,174 @@ public class PullToRefreshLayout extends FrameLayout implements ChildViewTopMarg
         try {
             blockScrollWhileRefreshing = typedAttributes.getBoolean(R.styleable.PullToRefreshLayout_blockScrollWhileRefreshing, true);
 
-            refreshIconDrawable = typedAttributes.getDrawable(R.styleable.PullToRefreshLayout_refreshIconDrawable);
+            // Drawable resources are decoded when the refresh icon is created
+            refreshIconDrawableResId = typedAttributes.getResourceId(R.styleable.PullToRefreshLayout_refreshIconDrawable, 0);
+            if (refreshIconDrawableResId == 0) {
+                refreshIconDrawable = typedAttributes.getDrawable(R.styleable.PullToRefreshLayout_refreshIconDrawable);
+            }
             refreshIconSpinDuration = typedAttributes
                     .getInteger(R.styleable.PullToRefreshLayout_refreshIconSpinDuration,
                             DEFAULT_REFRESH_ICON_SPIN_DURATION);
             refreshIconColor = typedAttributes
                     .getColor(R.styleable.PullToRefreshLayout_refreshIconColor, DEFAULT_REFRESH_ICON_COLOR);
-            refreshIconSize = typedAttributes.getDimensionPixelSize(R.styleable.PullToRefreshLayout_refreshIconSize,
-                    getResources().getDimensionPixelOffset(R.dimen.refresh_icon_size));
+            refreshIconSize = typedAttributes.hasValue(R.styleable.PullToRefreshLayout_refreshIconSize)
+                    ? typedAttributes.getDimensionPixelSize(R.styleable.PullToRefreshLayout_refreshIconSize, 0)
+                    : getResources().getDimensionPixelOffset(R.dimen.refresh_icon_size);
 
             refreshLayoutBackgroundColor = typedAttributes
                     .getColor(R.styleable.PullToRefreshLayout_refreshLayoutBackgroundColor,
                             DEFAULT_REFRESH_LAYOUT_BACKGROUND_COLOR);
-            refreshLayoutPadding = typedAttributes
-                    .getDimensionPixelSize(R.styleable.PullToRefreshLayout_refreshLayoutPadding,
-                            getResources().getDimensionPixelSize(R.dimen.refresh_layout_padding));
-            refreshLayoutMaxHeight = typedAttributes
+            refreshLayoutPadding = typedAttributes.hasValue(R.styleable.PullToRefreshLayout_refreshLayoutPadding)
+                    ? typedAttributes.getDimensionPixelSize(R.styleable.PullToRefreshLayout_refreshLayoutPadding, 0)
+                    : getResources().getDimensionPixelSize(R.dimen.refresh_layout_padding);
+            pullTracker.setMaxHeight(typedAttributes
                     .getDimensionPixelOffset(R.styleable.PullToRefreshLayout_refreshLayoutMaxHeight,
-                            DEFAULT_REFRESH_LAYOUT_MAX_HEIGHT);
-            refreshLayoutThresholdHeight = typedAttributes
+                            DEFAULT_REFRESH_LAYOUT_MAX_HEIGHT));
+            pullTracker.setThresholdHeight(typedAttributes
                     .getDimensionPixelOffset(R.styleable.PullToRefreshLayout_refreshLayoutThresholdHeight,
-                            DEFAULT_REFRESH_LAYOUT_THRESHOLD_HEIGHT);
+                            DEFAULT_REFRESH_LAYOUT_THRESHOLD_HEIGHT));
+            pullTracker.setPreArmThresholdHeight(typedAttributes
+                    .getDimensionPixelOffset(R.styleable.PullToRefreshLayout_preArmThresholdHeight, 0));
+            // A velocity is no dimension, so it is given in dp per second and scaled here
+            pullTracker.setRefreshFlingVelocity(Math.round(
+                    typedAttributes.getInteger(R.styleable.PullToRefreshLayout_refreshFlingVelocity, 0)
+                            * getResources().getDisplayMetrics().density));
+            dragMode = typedAttributes.getInt(R.styleable.PullToRefreshLayout_dragMode, DRAG_MODE_MARGIN);
+            hardwareLayers = typedAttributes.getInt(R.styleable.PullToRefreshLayout_hardwareLayers, 0);
+            pullTracker.setPullResistance(createPullResistance(
+                    typedAttributes.getInt(R.styleable.PullToRefreshLayout_pullResistance, PULL_RESISTANCE_STANDARD)));
+            lazyRefreshLayout = typedAttributes.getBoolean(R.styleable.PullToRefreshLayout_lazyRefreshLayout, false);
+            refreshTimeout = typedAttributes.getInteger(R.styleable.PullToRefreshLayout_refreshTimeout,
+                    DEFAULT_REFRESH_TIMEOUT);
+            minRefreshInterval = typedAttributes.getInteger(R.styleable.PullToRefreshLayout_minRefreshInterval, 0);
+            freshnessKey = typedAttributes.getString(R.styleable.PullToRefreshLayout_freshnessKey);
+            freshnessTtl = typedAttributes.getInteger(R.styleable.PullToRefreshLayout_freshnessTtl, 0);
+            refreshOnAttachIfStale = typedAttributes
+                    .getBoolean(R.styleable.PullToRefreshLayout_refreshOnAttachIfStale, false);
+            loadMoreController.setPrefetchDistance(typedAttributes
+                    .getInteger(R.styleable.PullToRefreshLayout_loadMorePrefetchDistance,
+                            LoadMoreController.DEFAULT_PREFETCH_DISTANCE));
+            loadMoreController.setRetryDelay(typedAttributes
+                    .getInteger(R.styleable.PullToRefreshLayout_loadMoreRetryDelay,
+                            LoadMoreController.DEFAULT_RETRY_DELAY));
         } finally {
             typedAttributes.recycle();
         }
+    }
+
+    private static PullResistance createPullResistance(int pullResistance) {
+        switch (pullResistance) {
+            case PULL_RESISTANCE_LINEAR:
+                return new LinearPullResistance();
+            case PULL_RESISTANCE_RUBBER_BAND:
+                return new RubberBandPullResistance();
+            case PULL_RESISTANCE_ASYMPTOTIC:
+                return new AsymptoticPullResistance();
+            default:
+                return new DefaultPullResistance();
+        }
+    }
 
-        initialize();
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        pullMetricsRecorder.onLayoutPass();
     }
 
     public void onViewAdded(View view) {
         super.onViewAdded(view);
 
-        if (getChildCount() == 1 || (getChildCount() == 2 && getChildAt(0) == refreshLayout)) {
-            if (view != refreshLayout) {
-                setUpChildView(view);
-            }
+        if (view == refreshLayout || view == loadMoreFooter) {
+            return;
+        }
+        int childViewCount = getChildCount();
+        if (refreshLayout != null && refreshLayout.getParent() == this) {
+            childViewCount--;
+        }
+        if (loadMoreFooter != null && loadMoreFooter.getParent() == this) {
+            childViewCount--;
+        }
+        if (childViewCount == 1) {
+            setUpChildView(view);
         } else {
             Log.d(TAG,
                     "You are adding more than one child view. PullToRefreshLayout works best with one child view...");
         }
     }
 
-    private void setUpChildView(final View childView) {
-        if (childViewWeakRef != null && childViewWeakRef.get() != null) {
-            childViewWeakRef.get().setOnTouchListener(null);
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (freshnessKey != null && !isInEditMode()) {
+            // Read off the main thread now rather than on the first pull. The stale refresher is posted once it
+            // has been read, so that the child view has been added and laid out too.
+            FreshnessStore.getInstance(getContext()).load(refreshOnAttachIfStale ? staleRefresher : null);
         }
+        loadMoreController.onAttachedToWindow();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        cancelPreparedRefresh();
+        if (refreshTask != null) {
+            // Cancels the refresh task
+            abortRefresh();
+        }
+        flushRefreshLayoutOffsetUpdate();
+        if (pullStateMachine.isDragging()) {
+            // The pull is never going to be released
+            pullMetricsRecorder.onDragEnd(-1);
+            applyRefreshLayoutOffset(0);
+            pullStateMachine.reset();
+        }
+        settleAnimation.end();
+        setHardwareLayersEnabled(false);
+        pullMetricsRecorder.stop();
+        pullProgressDispatcher.cancel();
+        loadMoreController.onDetachedFromWindow();
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+        super.onDetachedFromWindow();
+    }
 
+    private void setUpChildView(View childView) {
         childViewWeakRef = new WeakReference<>(childView);
-        childView.setClickable(true);
-        childView.getViewTreeObserver().addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
-            @Override
-            public void onGlobalLayout() {
-                if (initialChildViewPosition == null) {
-                    saveInitialStateOfChildView();
-                }
-            }
-        });
-        childView.setOnTouchListener(childViewOnTouchListener);
+        loadMoreController.setChildView(childView);
+        if (childView.getLayoutParams() instanceof MarginLayoutParams) {
+            initialChildViewMarginTop = ((MarginLayoutParams) childView.getLayoutParams()).topMargin;
+            initialChildViewMarginBottom = ((MarginLayoutParams) childView.getLayoutParams()).bottomMargin;
+        }
     }
 
     private void initialize() {
-        createRefreshLayout();
-        createRefreshIcon();
+        boolean traced = PullToRefreshTrace.beginSection(TRACE_CREATE_REFRESH_LAYOUT);
+        try {
+            createRefreshLayout();
+            if (refreshIcon == null) {
+                createRefreshIcon();
+            } else {
+                // A custom refresh icon was set before the refresh layout was created
+                addRefreshIcon();
+            }
+        } finally {
+            PullToRefreshTrace.endSection(traced);
+        }
+    }
+
+    /**
+     * Creates the refresh layout and the refresh icon if they were deferred with lazyRefreshLayout.
+     */
+    private void ensureRefreshLayout() {
+        if (refreshLayout == null) {
+            initialize();
+        }
     }
 
     private void removeRefreshIcon() {
-        if (refreshIcon != null)
-            removeView(refreshIcon.getIconView());
+        if (refreshIcon != null && refreshLayout != null)
+            refreshLayout.removeView(refreshIcon.getIconView());
     }
 
     private void createRefreshLayout() {
@@ -182,15 +432,91 @@ public class PullToRefreshLayout extends FrameLayout implements ChildViewTopMarg
         refreshLayout
                 .setPadding(refreshLayoutPadding, refreshLayoutPadding, refreshLayoutPadding, refreshLayoutPadding);
         refreshLayout.setBackgroundColor(refreshLayoutBackgroundColor);
+        setUpRefreshLayoutForDragMode();
         addView(refreshLayout, 0);
     }
 
     private void createRefreshIcon() {
         removeRefreshIcon();
+        if (refreshIconDrawable == null && refreshIconDrawableResId != 0) {
+            refreshIconDrawable = ContextCompat.getDrawable(getContext(), refreshIconDrawableResId);
+            refreshIconDrawableResId = 0;
+        }
         refreshIcon = RefreshIconFactory
                 .createRefreshIcon(getContext(), refreshIconColor, refreshIconSize, refreshIconSpinDuration,
                         refreshIconDrawable);
+        addRefreshIcon();
+    }
+
+    /**
+     * Called by the {@link LoadMoreController} the first time it loads more.
+     */
+    RelativeLayout createLoadMoreFooter() {
+        loadMoreFooter = new RelativeLayout(getContext());
+        loadMoreFooter.setLayoutParams(
+                new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                        Gravity.BOTTOM));
+        loadMoreFooter
+                .setPadding(refreshLayoutPadding, refreshLayoutPadding, refreshLayoutPadding, refreshLayoutPadding);
+        loadMoreFooter.setBackgroundColor(refreshLayoutBackgroundColor);
+        addView(loadMoreFooter);
+        return loadMoreFooter;
+    }
+
+    /**
+     * Called by the {@link LoadMoreController} to make room for the load more footer below the child view.
+     * This requests a layout pass.
+     */
+    void setChildViewBottomInset(int bottomInset) {
+        View childView = childViewWeakRef != null ? childViewWeakRef.get() : null;
+        if (childView != null && childView.getLayoutParams() instanceof MarginLayoutParams) {
+            MarginLayoutParams layoutParams = (MarginLayoutParams) childView.getLayoutParams();
+            layoutParams.bottomMargin = initialChildViewMarginBottom + bottomInset;
+            childView.setLayoutParams(layoutParams);
+        }
+    }
+
+    /**
+     * Called by the {@link LoadMoreController} if no load more icon was set.
+     * The drawable is not shared with the refresh icon, which may be spinning at the same time.
+     */
+    RefreshIcon createLoadMoreIcon() {
+        Drawable loadMoreIconDrawable = null;
+        if (refreshIconDrawable != null && refreshIconDrawable.getConstantState() != null) {
+            loadMoreIconDrawable = refreshIconDrawable.getConstantState().newDrawable().mutate();
+        } else if (refreshIconDrawableResId != 0) {
+            loadMoreIconDrawable = ContextCompat.getDrawable(getContext(), refreshIconDrawableResId);
+        }
+        return RefreshIconFactory.createRefreshIcon(getContext(), refreshIconColor, refreshIconSize,
+                refreshIconSpinDuration, loadMoreIconDrawable);
+    }
+
+    private void addRefreshIcon() {
         refreshLayout.addView(refreshIcon.getIconView());
+        applyRefreshLayoutVisualOffset(refreshLayoutOffset);
+    }
+
+    @Override
+    protected int getChildDrawingOrder(int childCount, int i) {
+        if (dragMode != DRAG_MODE_OVERLAY || refreshLayout == null || getChildAt(0) != refreshLayout) {
+            return i;
+        }
+        // The refresh layout is the first child, so draw it last
+        return i == childCount - 1 ? 0 : i + 1;
+    }
+
+    /**
+     * In translation and overlay mode the refresh layout is laid out once at its max height and slid in from above,
+     * so nothing has to be measured again while pulling.
+     */
+    private void setUpRefreshLayoutForDragMode() {
+        if (dragMode == DRAG_MODE_TRANSLATION || dragMode == DRAG_MODE_OVERLAY) {
+            setRefreshLayoutLayoutOffset(0, pullTracker.getMaxHeight());
+        } else {
+            setRefreshLayoutLayoutOffset(refreshLayoutOffset, refreshLayoutOffset);
+        }
+        applyRefreshLayoutVisualOffset(refreshLayoutOffset);
+        refreshLayout.requestLayout();
     }
 
     /**
@@ -199,23 +525,257 @@ public class PullToRefreshLayout extends FrameLayout implements ChildViewTopMarg
      * @return true if PullToRefreshLayout is currently refreshing
      */
     public boolean isRefreshing() {
-        return refreshing;
+        return pullStateMachine.isRefreshing();
+    }
+
+    /**
+     * Returns the current state of the pull.
+     *
+     * @return one of the {@link PullState} constants
+     */
+    public int getPullState() {
+        return pullStateMachine.getState();
     }
 
     /**
      * Notifies {@link PullToRefreshLayout} when refresh is done.
+     * A refresh task of an {@link AsyncPullToRefreshListener} that is still running is cancelled.
      */
     public void refreshDone() {
-        if (refreshing) {
+        endRefresh(true);
+    }
+
+    /**
+     * Ends a refresh in flight without the listener having completed it, e.g. when the listener is replaced.
+     * The content is not marked fresh.
+     */
+    private void abortRefresh() {
+        endRefresh(false);
+    }
+
+    private void endRefresh(boolean completed) {
+        cancelRefreshTask();
+        if (pullStateMachine.refreshDone()) {
+            if (refreshTraceCookie != 0) {
+                PullToRefreshTrace.endAsyncSection(TRACE_REFRESH, refreshTraceCookie);
+                refreshTraceCookie = 0;
+            }
+            pullMetricsRecorder.onRefreshDone();
             animateRefreshLayout(0);
-            refreshing = false;
+            lastRefreshDoneTime = SystemClock.uptimeMillis();
+            if (completed && asyncPullToRefreshListener == null) {
+                // Without a refresh task there is no way to tell a failed refresh, so every refresh counts
+                markFresh();
+            }
+        }
+    }
+
+    /**
+     * Shows the refresh layout and starts refreshing as if the user had pulled it down.
+     * If it is already refreshing, the refresh in flight is joined and the listener is not notified again.
+     * Nothing happens within minRefreshInterval of the last refresh, or while the content is fresh.
+     */
+    public void startRefreshing() {
+        if (isRefreshing() || isRecentlyRefreshed() || childViewWeakRef == null || childViewWeakRef.get() == null
+                || isInEditMode()) {
+            return;
+        }
+
+        ensureRefreshLayout();
+        if (pullStateMachine.isDragging()) {
+            flushRefreshLayoutOffsetUpdate();
+            pullMetricsRecorder.onDragEnd(-1);
+            activePointerId = INVALID_POINTER;
+        }
+        if (!refreshIcon.isSpinning()) {
+            refreshIcon.spin();
         }
+        startRefreshing(0);
     }
 
     @Override
     public void setPullToRefreshListener(@NonNull PullToRefreshListener pullToRefreshListener) {
-        refreshDone();
+        abortRefresh();
         this.pullToRefreshListener = pullToRefreshListener;
+        asyncPullToRefreshListener = null;
+    }
+
+    @Override
+    public void setAsyncPullToRefreshListener(@NonNull AsyncPullToRefreshListener<?> asyncPullToRefreshListener) {
+        abortRefresh();
+        this.asyncPullToRefreshListener = asyncPullToRefreshListener;
+        pullToRefreshListener = null;
+    }
+
+    @Override
+    public void setPullToRefreshPrepareListener(@Nullable PullToRefreshPrepareListener pullToRefreshPrepareListener) {
+        cancelPreparedRefresh();
+        this.pullToRefreshPrepareListener = pullToRefreshPrepareListener;
+    }
+
+    @Override
+    public void setPullStateListener(@Nullable PullStateListener pullStateListener) {
+        this.pullStateListener = pullStateListener;
+    }
+
+    @Override
+    public void setPullProgressListener(@Nullable PullProgressListener pullProgressListener) {
+        pullProgressDispatcher.setPullProgressListener(pullProgressListener);
+    }
+
+    @Override
+    public void setLoadMoreListener(@Nullable LoadMoreListener loadMoreListener) {
+        loadMoreController.setLoadMoreListener(loadMoreListener);
+    }
+
+    @Override
+    public void setLoadMorePrefetchDistance(int loadMorePrefetchDistance) {
+        loadMoreController.setPrefetchDistance(loadMorePrefetchDistance);
+    }
+
+    @Override
+    public void setLoadMoreRetryDelay(int loadMoreRetryDelay) {
+        loadMoreController.setRetryDelay(loadMoreRetryDelay);
+    }
+
+    @Override
+    public void setLoadMoreIcon(@NonNull RefreshIcon loadMoreIcon) {
+        loadMoreController.setLoadMoreIcon(loadMoreIcon);
+    }
+
+    /**
+     * Notifies {@link PullToRefreshLayout} when the page requested by the {@link LoadMoreListener} is loaded.
+     * The end of the list is checked again, so a page that did not fill the list loads the next one right away.
+     */
+    public void loadMoreDone() {
+        loadMoreController.done();
+    }
+
+    /**
+     * Notifies {@link PullToRefreshLayout} when loading the page requested by the {@link LoadMoreListener} failed.
+     * Loading more is retried after loadMoreRetryDelay, which doubles with every failure in a row.
+     */
+    public void loadMoreFailed() {
+        loadMoreController.failed();
+    }
+
+    /**
+     * Sets whether there are more pages to load. The {@link LoadMoreListener} is not called while this is false.
+     *
+     * @param hasMoreToLoad false after the last page was loaded
+     */
+    public void setHasMoreToLoad(boolean hasMoreToLoad) {
+        loadMoreController.setHasMore(hasMoreToLoad);
+    }
+
+    /**
+     * Returns whether the {@link LoadMoreListener} is loading a page.
+     *
+     * @return true between onLoadMore and loadMoreDone or loadMoreFailed
+     */
+    public boolean isLoadingMore() {
+        return loadMoreController.isLoading();
+    }
+
+    @Override
+    public void setPullMetrics(@Nullable PullMetrics pullMetrics) {
+        pullMetricsRecorder.setPullMetrics(pullMetrics);
+    }
+
+    @Override
+    public void setPreArmThresholdHeight(int preArmThresholdHeightInPx) {
+        pullTracker.setPreArmThresholdHeight(preArmThresholdHeightInPx);
+    }
+
+    @Override
+    public void setPullResistance(@NonNull PullResistance pullResistance) {
+        pullTracker.setPullResistance(pullResistance);
+    }
+
+    @Override
+    public void setRefreshFlingVelocity(int refreshFlingVelocityInPxPerSecond) {
+        pullTracker.setRefreshFlingVelocity(refreshFlingVelocityInPxPerSecond);
+    }
+
+    @Override
+    public void setRefreshExecutor(@NonNull Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public void setRefreshTimeout(int refreshTimeout) {
+        this.refreshTimeout = refreshTimeout;
+    }
+
+    @Override
+    public void setMinRefreshInterval(int minRefreshInterval) {
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    @Override
+    public void setFreshnessKey(@Nullable String freshnessKey) {
+        this.freshnessKey = freshnessKey;
+        if (freshnessKey != null && !isInEditMode()) {
+            FreshnessStore.getInstance(getContext()).load(null);
+        }
+    }
+
+    @Override
+    public void setFreshnessTtl(int freshnessTtl) {
+        this.freshnessTtl = freshnessTtl;
+    }
+
+    @Override
+    public void setRefreshOnAttachIfStale(boolean refreshOnAttachIfStale) {
+        this.refreshOnAttachIfStale = refreshOnAttachIfStale;
+    }
+
+    /**
+     * Returns whether the content was refreshed successfully within freshnessTtl.
+     * This is always false if no freshnessKey is set.
+     *
+     * @return true if the content is fresh
+     */
+    public boolean isFresh() {
+        return freshnessKey != null && freshnessTtl > 0
+                && FreshnessStore.getInstance(getContext()).isFresh(freshnessKey, freshnessTtl);
+    }
+
+    /**
+     * Called on the main thread when the refresh task finished successfully.
+     */
+    void markFresh() {
+        if (freshnessKey != null) {
+            FreshnessStore.getInstance(getContext()).markRefreshed(freshnessKey);
+        }
+    }
+
+    private <T> void startRefreshTask(AsyncPullToRefreshListener<T> listener, View childView) {
+        AsyncRefreshTask<T> task = new AsyncRefreshTask<>(this, listener, listener.onCreateRefreshTask(childView));
+        refreshTask = task;
+        task.start(refreshExecutor, refreshTimeout);
+    }
+
+    private void cancelRefreshTask() {
+        if (refreshTask != null) {
+            AsyncRefreshTask<?> task = refreshTask;
+            refreshTask = null;
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * Called on the main thread by the refresh task once it is done.
+     *
+     * @return false if the refresh was already ended and the result should be dropped
+     */
+    boolean finishRefreshTask(AsyncRefreshTask<?> task) {
+        if (task != refreshTask) {
+            return false;
+        }
+        refreshTask = null;
+        refreshDone();
+        return true;
     }
 
     @Override
@@ -225,6 +785,10 @@ public class PullToRefreshLayout extends FrameLayout implements ChildViewTopMarg
             refreshLayout
                     .setPadding(refreshLayoutPadding, refreshLayoutPadding, refreshLayoutPadding, refreshLayoutPadding);
         }
+        if (loadMoreFooter != null) {
+            loadMoreFooter
+                    .setPadding(refreshLayoutPadding, refreshLayoutPadding, refreshLayoutPadding, refreshLayoutPadding);
+        }
     }
 
     @Override
@@ -233,6 +797,9 @@ public class PullToRefreshLayout extends FrameLayout implements ChildViewTopMarg
         if (refreshLayout != null) {
             refreshLayout.setBackgroundColor(refreshLayoutBackgroundColor);
         }
+        if (loadMoreFooter != null) {
+            loadMoreFooter.setBackgroundColor(refreshLayoutBackgroundColor);
+        }
     }
 
     @Override
@@ -261,24 +828,35 @@ public class PullToRefreshLayout extends FrameLayout implements ChildViewTopMarg
     @Override
     public void setRefreshIconDrawable(@Nullable Drawable refreshIconDrawable) {
         this.refreshIconDrawable = refreshIconDrawable;
-        createRefreshIcon();
+        refreshIconDrawableResId = 0;
+        if (refreshLayout != null) {
+            createRefreshIcon();
+        } else {
+            // The refresh icon is created with the new drawable together with the refresh layout
+            refreshIcon = null;
+        }
     }
 
     @Override
     public void setRefreshIcon(@NonNull RefreshIcon refreshIcon) {
         removeRefreshIcon();
         this.refreshIcon = refreshIcon;
-        refreshLayout.addView(refreshIcon.getIconView());
+        if (refreshLayout != null) {
+            addRefreshIcon();
+        }
     }
 
     @Override
     public void setRefreshLayoutMaxHeight(int refreshLayoutMaxHeightInPx) {
-        this.refreshLayoutMaxHeight = refreshLayoutMaxHeightInPx;
+        pullTracker.setMaxHeight(refreshLayoutMaxHeightInPx);
+        if (dragMode != DRAG_MODE_MARGIN && refreshLayout != null) {
+            setUpRefreshLayoutForDragMode();
+        }
     }
 
     @Override
     public void setRefreshLayoutThresholdHeight(int refreshLayoutThresholdHeightInPx) {
-        this.refreshLayoutThresholdHeight = refreshLayoutThresholdHeightInPx;
+        pullTracker.setThresholdHeight(refreshLayoutThresholdHeightInPx);
     }
 
     @Override
@@ -286,193 +864,688 @@ public class PullToRefreshLayout extends FrameLayout implements ChildViewTopMarg
         this.blockScrollWhileRefreshing = blockScrollWhileRefreshing;
     }
 
-    private void saveInitialStateOfChildView() {
-        try {
-            initialChildViewPosition = new int[2];
-            childViewWeakRef.get().getLocationOnScreen(initialChildViewPosition);
-            initialChildViewMarginTop = getChildViewMarginLayoutParams().topMargin;
-        } catch (NullPointerException e) {
-            Log.d(TAG, e.getMessage());
+    @Override
+    public void setLazyRefreshLayout(boolean lazyRefreshLayout) {
+        this.lazyRefreshLayout = lazyRefreshLayout;
+        if (!lazyRefreshLayout && !isInEditMode()) {
+            ensureRefreshLayout();
+        }
+    }
+
+    @Override
+    public void setHardwareLayers(int hardwareLayers) {
+        setHardwareLayersEnabled(false);
+        this.hardwareLayers = hardwareLayers;
+    }
+
+    @Override
+    public void setDragMode(int dragMode) {
+        if (pullStateMachine.getState() != PullState.IDLE) {
+            // Switching now would end the refresh behind the back of its listener and task
+            pendingDragMode = dragMode;
+            return;
+        }
+        pendingDragMode = NO_PENDING_DRAG_MODE;
+        applyDragMode(dragMode);
+    }
+
+    private void applyDragMode(int dragMode) {
+        if (this.dragMode == dragMode) {
+            return;
+        }
+
+        cancelRefreshLayoutAnimation();
+        setHardwareLayersEnabled(false);
+        refreshLayoutOffset = 0;
+        this.dragMode = dragMode;
+        if (refreshLayout != null) {
+            setUpRefreshLayoutForDragMode();
         }
     }
 
     private MarginLayoutParams getChildViewMarginLayoutParams() {
-        try {
-            return (MarginLayoutParams) childViewWeakRef.get().getLayoutParams();
-        } catch (NullPointerException e) {
-            Log.d(TAG, e.getMessage());
-            return new MarginLayoutParams(getContext(), null);
+        View childView = childViewWeakRef != null ? childViewWeakRef.get() : null;
+        if (childView != null && childView.getLayoutParams() instanceof MarginLayoutParams) {
+            return (MarginLayoutParams) childView.getLayoutParams();
+        }
+
+        if (emptyMarginLayoutParams == null) {
+            emptyMarginLayoutParams = new MarginLayoutParams(0, 0);
         }
+        emptyMarginLayoutParams.topMargin = initialChildViewMarginTop;
+        return emptyMarginLayoutParams;
     }
 
-    private void animateRefreshLayout(final int refreshLayoutHeight) {
-        try {
-            childViewWeakRef.get().startAnimation(
-                    new ChildViewAnimation(PullToRefreshLayout.this, childViewWeakRef.get(), refreshLayoutHeight));
-            refreshLayout.startAnimation(
-                    new RefreshLayoutAnimation(PullToRefreshLayout.this, refreshLayout, refreshLayoutHeight));
-        } catch (NullPointerException e) {
-            Log.d(TAG, e.getMessage());
+    private void animateRefreshLayout(int refreshLayoutHeight) {
+        animateRefreshLayout(refreshLayoutHeight, 0);
+    }
+
+    /**
+     * Settles the refresh layout at refreshLayoutHeight with a spring, starting at the given velocity.
+     * If a settle animation is running it is retargeted and keeps its current velocity.
+     * Frames only change translationY. In margin mode the layout is updated at most once at the start,
+     * when the refresh layout has to grow, and once at the end.
+     */
+    private void animateRefreshLayout(int refreshLayoutHeight, float velocity) {
+        if (childViewWeakRef == null || childViewWeakRef.get() == null || refreshLayout == null) {
+            if (refreshLayoutHeight == 0) {
+                pullStateMachine.settled();
+            }
+            return;
         }
+
+        setHardwareLayersEnabled(true);
+        float startVelocity = settleAnimation.isRunning() && velocity == 0
+                ? settleAnimation.getCurrentVelocity() : velocity;
+        if (dragMode == DRAG_MODE_MARGIN && refreshLayoutHeight > childViewLayoutOffset) {
+            setRefreshLayoutLayoutOffset(refreshLayoutHeight, refreshLayoutHeight);
+            applyRefreshLayoutVisualOffset(refreshLayoutOffset);
+        }
+        pullMetricsRecorder.onSettleStart();
+        settleAnimation.start(refreshLayoutOffset, refreshLayoutHeight, startVelocity);
     }
 
     @Override
-    public int calculateNewTopMarginAtInterpolatedTime(int refreshLayoutHeight, float interpolatedTime) {
-        final int currentTopMargin = getChildViewMarginLayoutParams().topMargin;
-        return (int) (currentTopMargin - (currentTopMargin - (refreshLayoutHeight + initialChildViewMarginTop)) * interpolatedTime);
+    public void onSettleAnimationUpdate(int refreshLayoutOffset) {
+        // A fast fling can make the spring overshoot, which would open a gap above the refresh layout
+        applyRefreshLayoutVisualOffset(Math.max(0, Math.min(refreshLayoutOffset, pullTracker.getMaxHeight())));
+        pullProgressDispatcher.flush();
     }
 
     @Override
-    public int getInitialTopMargin() {
-        return initialChildViewMarginTop;
+    public void onSettleAnimationEnd(int refreshLayoutOffset) {
+        if (dragMode == DRAG_MODE_MARGIN && childViewLayoutOffset != refreshLayoutOffset) {
+            setRefreshLayoutLayoutOffset(refreshLayoutOffset, refreshLayoutOffset);
+        }
+        applyRefreshLayoutVisualOffset(refreshLayoutOffset);
+        setHardwareLayersEnabled(false);
+        pullMetricsRecorder.onSettleEnd();
+        if (refreshLayoutOffset == 0) {
+            pullStateMachine.settled();
+            if (refreshIcon != null) {
+                // Stop spinning once the refresh layout is hidden
+                refreshIcon.setProgress(0);
+            }
+        }
+        pullProgressDispatcher.flush();
     }
 
+    private void cancelRefreshLayoutAnimation() {
+        if (refreshLayoutOffsetUpdateScheduled) {
+            removeCallbacks(refreshLayoutOffsetUpdater);
+            refreshLayoutOffsetUpdateScheduled = false;
+        }
+        settleAnimation.cancel();
+        pullMetricsRecorder.onSettleCancel();
+    }
 
-    private class ChildViewOnTouchListener implements OnTouchListener {
-        private boolean isDown = false;
-        private float prevY = 0;
-        AdapterView.OnItemClickListener itemClickListener;
-        AdapterView.OnItemLongClickListener itemLongClickListener;
-        AdapterView.OnItemSelectedListener itemSelectedListener;
+    /**
+     * Returns how far the child view is currently pushed down from its initial position.
+     *
+     * @return current height of the refresh layout in px
+     */
+    private int getRefreshLayoutOffset() {
+        return refreshLayoutOffset;
+    }
 
-        @Override
-        public boolean onTouch(View view, MotionEvent motionEvent) {
-            if (refreshing) {
-                return blockScrollWhileRefreshing;
-            }
+    private void applyRefreshLayoutOffset(int refreshLayoutOffset) {
+        if (dragMode == DRAG_MODE_MARGIN && childViewLayoutOffset != refreshLayoutOffset) {
+            setRefreshLayoutLayoutOffset(refreshLayoutOffset, refreshLayoutOffset);
+        }
+        applyRefreshLayoutVisualOffset(refreshLayoutOffset);
+    }
 
-            if (motionEvent.getAction() == MotionEvent.ACTION_UP) {
-                if (isDown) {
-                    startRefreshingOrRestoreToInitialState();
-                    isDown = false;
-                    prevY = 0;
+    /**
+     * Sets the top margin of the child view and the height of the refresh layout. This requests a layout pass.
+     */
+    private void setRefreshLayoutLayoutOffset(int childViewLayoutOffset, int refreshLayoutLayoutHeight) {
+        this.childViewLayoutOffset = childViewLayoutOffset;
+        this.refreshLayoutLayoutHeight = refreshLayoutLayoutHeight;
 
-                    restoreItemClickListeners(view);
-                }
-            } else if (motionEvent.getAction() == MotionEvent.ACTION_MOVE) {
-                if (view.getScrollY() == 0 && !view.canScrollVertically(-1)) {
-                    int[] location = new int[2];
-                    view.getLocationInWindow(location);
+        View childView = childViewWeakRef != null ? childViewWeakRef.get() : null;
+        if (childView != null) {
+            MarginLayoutParams layoutParams = getChildViewMarginLayoutParams();
+            layoutParams.topMargin = initialChildViewMarginTop + childViewLayoutOffset;
+            childView.setLayoutParams(layoutParams);
+        }
+        if (refreshLayout != null) {
+            refreshLayout.getLayoutParams().height = refreshLayoutLayoutHeight;
+        }
+    }
 
-                    if (isRefreshLayoutInInitialState(location)) {
-                        if(!isDown) {
-                           saveItemClickListeners(view);
-                        }
+    /**
+     * Returns how far the child view is currently moved down from its initial position.
+     */
+    private int getChildViewOffset() {
+        return dragMode == DRAG_MODE_OVERLAY ? 0 : refreshLayoutOffset;
+    }
 
-                        isDown = true;
-                        moveRefreshLayout(view, motionEvent.getRawY());
-                        prevY = motionEvent.getRawY();
+    /**
+     * Moves the child view and the refresh layout with translationY so that the child view appears
+     * refreshLayoutOffset below its initial position, keeping the refresh icon centered in the visible part
+     * of the refresh layout. In overlay mode the child view stays in place.
+     * Only render properties are changed, so no layout pass is triggered.
+     */
+    private void applyRefreshLayoutVisualOffset(int refreshLayoutOffset) {
+        this.refreshLayoutOffset = refreshLayoutOffset;
+        if (childViewWeakRef != null && childViewWeakRef.get() != null) {
+            childViewWeakRef.get().setTranslationY(getChildViewOffset() - childViewLayoutOffset);
+        }
+        if (refreshLayout != null) {
+            refreshLayout.setTranslationY(refreshLayoutOffset - refreshLayoutLayoutHeight);
+        }
+        if (refreshIcon != null) {
+            refreshIcon.getIconView().setTranslationY((refreshLayoutLayoutHeight - refreshLayoutOffset) / 2f);
+        }
+        pullProgressDispatcher.update(refreshLayoutOffset, pullStateMachine.getState());
+    }
 
-                        return shouldNotPassTouchEventToParent();
-                    }
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent motionEvent) {
+        boolean traced = PullToRefreshTrace.beginSection(TRACE_INTERCEPT_TOUCH_EVENT);
+        try {
+            return interceptTouchEvent(motionEvent);
+        } finally {
+            PullToRefreshTrace.endSection(traced);
+        }
+    }
+
+    private boolean interceptTouchEvent(MotionEvent motionEvent) {
+        if (!isEnabled() || childViewWeakRef == null || childViewWeakRef.get() == null) {
+            return false;
+        }
+        if (isRefreshing()) {
+            return blockScrollWhileRefreshing;
+        }
+        if (nestedScrollInProgress) {
+            // Nested scrolling children report their overscroll through onNestedScroll instead.
+            return false;
+        }
+
+        switch (motionEvent.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                if (pullStateMachine.isDragging()) {
+                    // The previous pull never got its UP or CANCEL
+                    cancelDragging();
+                }
+                activePointerId = motionEvent.getPointerId(0);
+                initialDownY = motionEvent.getY();
+                break;
+
+            case MotionEvent.ACTION_MOVE: {
+                int pointerIndex = motionEvent.findPointerIndex(activePointerId);
+                if (pointerIndex < 0) {
+                    return false;
                 }
+                startDraggingIfNeeded(motionEvent.getY(pointerIndex));
+                break;
             }
-            prevY = motionEvent.getRawY();
 
+            case MotionEvent.ACTION_POINTER_UP:
+                onSecondaryPointerUp(motionEvent);
+                break;
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                activePointerId = INVALID_POINTER;
+                break;
+        }
+
+        return pullStateMachine.isDragging();
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent motionEvent) {
+        boolean traced = PullToRefreshTrace.beginSection(TRACE_TOUCH_EVENT);
+        try {
+            return handleTouchEvent(motionEvent);
+        } finally {
+            PullToRefreshTrace.endSection(traced);
+        }
+    }
+
+    private boolean handleTouchEvent(MotionEvent motionEvent) {
+        if (!isEnabled() || childViewWeakRef == null || childViewWeakRef.get() == null) {
             return false;
         }
+        if (isRefreshing()) {
+            return blockScrollWhileRefreshing;
+        }
 
-        private void startRefreshingOrRestoreToInitialState() {
-            if (refreshLayout.getHeight() >= refreshLayoutThresholdHeight) {
-                animateRefreshLayout(refreshLayoutThresholdHeight);
-                refreshing = true;
+        switch (motionEvent.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                if (pullStateMachine.isDragging()) {
+                    // The previous pull never got its UP or CANCEL
+                    cancelDragging();
+                }
+                activePointerId = motionEvent.getPointerId(0);
+                initialDownY = motionEvent.getY();
+                break;
+
+            case MotionEvent.ACTION_MOVE: {
+                int pointerIndex = motionEvent.findPointerIndex(activePointerId);
+                if (pointerIndex < 0) {
+                    return false;
+                }
 
-                if (pullToRefreshListener != null) {
-                    try {
-                        pullToRefreshListener.onStartRefresh(childViewWeakRef.get());
-                    } catch (NullPointerException e) {
-                        pullToRefreshListener.onStartRefresh(null);
+                float y = motionEvent.getY(pointerIndex);
+                if (!pullStateMachine.isDragging()) {
+                    startDraggingIfNeeded(y);
+                } else {
+                    pullMetricsRecorder.onMove();
+                    velocityTracker.addMovement(motionEvent);
+                    // Batched samples go through the drag resistance one by one, only the view update is per frame
+                    for (int historyIndex = 0, historySize = motionEvent.getHistorySize();
+                         historyIndex < historySize; historyIndex++) {
+                        float historicalY = motionEvent.getHistoricalY(pointerIndex, historyIndex);
+                        moveRefreshLayout(historicalY - lastMotionY);
+                        lastMotionY = historicalY;
                     }
+                    moveRefreshLayout(y - lastMotionY);
+                    lastMotionY = y;
                 }
-            } else {
-                animateRefreshLayout(0);
+                break;
             }
+
+            case MotionEvent.ACTION_POINTER_DOWN: {
+                int pointerIndex = motionEvent.getActionIndex();
+                activePointerId = motionEvent.getPointerId(pointerIndex);
+                lastMotionY = motionEvent.getY(pointerIndex);
+                break;
+            }
+
+            case MotionEvent.ACTION_POINTER_UP:
+                onSecondaryPointerUp(motionEvent);
+                break;
+
+            case MotionEvent.ACTION_UP:
+                if (pullStateMachine.isDragging()) {
+                    velocityTracker.addMovement(motionEvent);
+                    velocityTracker.computeCurrentVelocity(1000, maximumFlingVelocity);
+                    float velocity = velocityTracker.getYVelocity(activePointerId);
+                    flushRefreshLayoutOffsetUpdate();
+                    pullMetricsRecorder.onDragEnd(motionEvent.getEventTime());
+                    startRefreshingOrRestoreToInitialState(velocity);
+                }
+                activePointerId = INVALID_POINTER;
+                return false;
+
+            case MotionEvent.ACTION_CANCEL:
+                if (pullStateMachine.isDragging()) {
+                    cancelDragging();
+                }
+                activePointerId = INVALID_POINTER;
+                return false;
         }
 
-        @org.jetbrains.annotations.Contract(pure = true)
-        private boolean isRefreshLayoutInInitialState(int[] location) {
-            return location[1] + initialChildViewMarginTop == initialChildViewPosition[1] + getChildViewMarginLayoutParams().topMargin;
+        return true;
+    }
+
+    @Override
+    public void requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        View childView = childViewWeakRef != null ? childViewWeakRef.get() : null;
+        // AbsListView before Lollipop and views without nested scrolling ask for this as soon as they start
+        // scrolling, which would make it impossible to start pulling. Ignore them like SwipeRefreshLayout does.
+        if ((Build.VERSION.SDK_INT < 21 && childView instanceof AbsListView)
+                || (childView != null && !ViewCompat.isNestedScrollingEnabled(childView))) {
+            return;
         }
+        super.requestDisallowInterceptTouchEvent(disallowIntercept);
+    }
 
-        private void moveRefreshLayout(View view, float motionEventRawY) {
-            int newTopMargin = calculateNewTopMargin(motionEventRawY);
-            MarginLayoutParams layoutParams = getChildViewMarginLayoutParams();
-            layoutParams.topMargin = newTopMargin;
-            view.setLayoutParams(layoutParams);
+    // NestedScrollingParent
 
-            refreshLayout.getLayoutParams().height = calculateNewRefreshLayoutHeight();
-            spinOrSetProgressOfRefreshIcon();
+    @Override
+    public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+        return isEnabled() && !(isRefreshing() && blockScrollWhileRefreshing) && !pullStateMachine.isDragging()
+                && (nestedScrollAxes & ViewCompat.SCROLL_AXIS_VERTICAL) != 0;
+    }
+
+    @Override
+    public void onNestedScrollAccepted(View child, View target, int axes) {
+        nestedScrollingParentHelper.onNestedScrollAccepted(child, target, axes);
+        startNestedScroll(axes & ViewCompat.SCROLL_AXIS_VERTICAL);
+        // A tap during a settle also starts a nested scroll, so the pull only starts once the refresh layout moves
+        nestedScrollInProgress = true;
+    }
+
+    @Override
+    public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+        boolean traced = PullToRefreshTrace.beginSection(TRACE_NESTED_PRE_SCROLL);
+        try {
+            nestedPreScroll(dx, dy, consumed);
+        } finally {
+            PullToRefreshTrace.endSection(traced);
         }
+    }
 
-        private void spinOrSetProgressOfRefreshIcon() {
-            if (getChildViewMarginLayoutParams().topMargin >= refreshLayoutThresholdHeight) {
-                if (!refreshIcon.isSpinning()) {
-                    refreshIcon.spin();
-                }
+    private void nestedPreScroll(int dx, int dy, int[] consumed) {
+        // Scrolling up while the refresh layout is shown closes the refresh layout first
+        int refreshLayoutOffset = getRefreshLayoutOffset();
+        if (dy > 0 && refreshLayoutOffset > 0 && !isRefreshing()) {
+            int consumedDy = Math.min(dy, refreshLayoutOffset);
+            startNestedPullIfNeeded();
+            pullMetricsRecorder.onMove();
+            moveRefreshLayout(-consumedDy);
+            consumed[1] = consumedDy;
+        }
+
+        if (dispatchNestedPreScroll(dx - consumed[0], dy - consumed[1], parentScrollConsumed, null)) {
+            consumed[0] += parentScrollConsumed[0];
+            consumed[1] += parentScrollConsumed[1];
+        }
+    }
+
+    @Override
+    public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+        boolean traced = PullToRefreshTrace.beginSection(TRACE_NESTED_SCROLL);
+        try {
+            nestedScroll(target, dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed);
+        } finally {
+            PullToRefreshTrace.endSection(traced);
+        }
+    }
+
+    private void nestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+        // Let the parent, e.g. an AppBarLayout in a CoordinatorLayout, take the overscroll first
+        dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, parentOffsetInWindow);
+
+        int dy = dyUnconsumed + parentOffsetInWindow[1];
+        if (dy < 0 && !isRefreshing() && !ViewCompat.canScrollVertically(target, -1)) {
+            startNestedPullIfNeeded();
+            pullMetricsRecorder.onMove();
+            moveRefreshLayout(-dy);
+        }
+    }
+
+    @Override
+    public void onStopNestedScroll(View target) {
+        nestedScrollingParentHelper.onStopNestedScroll(target);
+        nestedScrollInProgress = false;
+        flushRefreshLayoutOffsetUpdate();
+        pullMetricsRecorder.onDragEnd(SystemClock.uptimeMillis());
+        // Only a nested scroll which moved the refresh layout resolves it, any settle in progress just carries on
+        if (pullStateMachine.isDragging()) {
+            if (getRefreshLayoutOffset() > 0) {
+                startRefreshingOrRestoreToInitialState(nestedFlingVelocity);
             } else {
-                refreshIcon.setProgress((float) calculateNewRefreshLayoutHeight() / refreshLayoutThresholdHeight);
+                // Scrolled back up until the refresh layout was hidden again
+                cancelPreparedRefresh();
+                pullStateMachine.release(false);
+                pullStateMachine.settled();
             }
         }
+        nestedFlingVelocity = 0;
+        stopNestedScroll();
+    }
 
-        private int calculateNewTopMargin(float motionEventRawY) {
-            int maxTopMargin = refreshLayoutMaxHeight + initialChildViewMarginTop;
-            int newTopMargin = (int) Math.min(maxTopMargin,
-                    Math.max(getChildViewMarginLayoutParams().topMargin + motionEventRawY - prevY,
-                            initialChildViewMarginTop));
-            if (newTopMargin > refreshLayoutThresholdHeight && newTopMargin <= maxTopMargin) {
-                newTopMargin -= (motionEventRawY - prevY) / SCROLL_GRAVITY;
+    private void startNestedPullIfNeeded() {
+        if (pullStateMachine.isDragging() || !pullStateMachine.canStartDragging()) {
+            return;
+        }
+        ensureRefreshLayout();
+        setHardwareLayersEnabled(true);
+        cancelRefreshLayoutAnimation();
+        pullTracker.startPull(getRefreshLayoutOffset());
+        pullStateMachine.startDragging();
+        pullMetricsRecorder.onDragStart();
+    }
+
+    @Override
+    public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+        // A fling while the refresh layout is shown is handled by the settle animation in onStopNestedScroll
+        if (pullStateMachine.isDragging() && getRefreshLayoutOffset() > 0) {
+            nestedFlingVelocity = -velocityY;
+            return true;
+        }
+        return dispatchNestedPreFling(velocityX, velocityY);
+    }
+
+    @Override
+    public boolean onNestedFling(View target, float velocityX, float velocityY, boolean consumed) {
+        return dispatchNestedFling(velocityX, velocityY, consumed);
+    }
+
+    @Override
+    public int getNestedScrollAxes() {
+        return nestedScrollingParentHelper.getNestedScrollAxes();
+    }
+
+    // NestedScrollingChild
+
+    @Override
+    public void setNestedScrollingEnabled(boolean enabled) {
+        nestedScrollingChildHelper.setNestedScrollingEnabled(enabled);
+    }
+
+    @Override
+    public boolean isNestedScrollingEnabled() {
+        return nestedScrollingChildHelper.isNestedScrollingEnabled();
+    }
+
+    @Override
+    public boolean startNestedScroll(int axes) {
+        return nestedScrollingChildHelper.startNestedScroll(axes);
+    }
+
+    @Override
+    public void stopNestedScroll() {
+        nestedScrollingChildHelper.stopNestedScroll();
+    }
+
+    @Override
+    public boolean hasNestedScrollingParent() {
+        return nestedScrollingChildHelper.hasNestedScrollingParent();
+    }
+
+    @Override
+    public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed,
+            int[] offsetInWindow) {
+        return nestedScrollingChildHelper
+                .dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow);
+    }
+
+    @Override
+    public boolean dispatchNestedPreScroll(int dx, int dy, int[] consumed, int[] offsetInWindow) {
+        return nestedScrollingChildHelper.dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow);
+    }
+
+    @Override
+    public boolean dispatchNestedFling(float velocityX, float velocityY, boolean consumed) {
+        return nestedScrollingChildHelper.dispatchNestedFling(velocityX, velocityY, consumed);
+    }
+
+    @Override
+    public boolean dispatchNestedPreFling(float velocityX, float velocityY) {
+        return nestedScrollingChildHelper.dispatchNestedPreFling(velocityX, velocityY);
+    }
+
+    private void startDraggingIfNeeded(float y) {
+        if (y - initialDownY > touchSlop && !pullStateMachine.isDragging() && canStartPulling()) {
+            ensureRefreshLayout();
+            setHardwareLayersEnabled(true);
+            if (velocityTracker == null) {
+                velocityTracker = VelocityTracker.obtain();
+            } else {
+                velocityTracker.clear();
             }
-            return newTopMargin;
+            cancelRefreshLayoutAnimation();
+            pullTracker.startPull(getRefreshLayoutOffset());
+            lastMotionY = initialDownY + touchSlop;
+            pullStateMachine.startDragging();
+            pullMetricsRecorder.onDragStart();
         }
+    }
 
-        private int calculateNewRefreshLayoutHeight() {
-            return getChildViewMarginLayoutParams().topMargin - initialChildViewMarginTop;
+    private void onSecondaryPointerUp(MotionEvent motionEvent) {
+        int pointerIndex = motionEvent.getActionIndex();
+        if (motionEvent.getPointerId(pointerIndex) == activePointerId) {
+            int newPointerIndex = pointerIndex == 0 ? 1 : 0;
+            activePointerId = motionEvent.getPointerId(newPointerIndex);
+            lastMotionY = motionEvent.getY(newPointerIndex);
         }
+    }
 
-        private boolean shouldNotPassTouchEventToParent() {
-            return getChildViewMarginLayoutParams().topMargin != initialChildViewMarginTop;
+    /**
+     * A pull can start once the child view has been laid out and is scrolled to its top. Where the child view is
+     * on screen does not matter, so moving parents like a CoordinatorLayout do not get in the way.
+     */
+    private boolean canStartPulling() {
+        View childView = childViewWeakRef.get();
+        if (childView == null || !ViewCompat.isLaidOut(childView) || !pullStateMachine.canStartDragging()) {
+            return false;
         }
+        return childView.getScrollY() == 0 && !ViewCompat.canScrollVertically(childView, -1);
+    }
 
-        private void saveItemClickListeners(View view) {
-            if(view instanceof AdapterView) {
-                AdapterView adapterView = (AdapterView) view;
-                AdapterView.OnItemClickListener itemClickListener = adapterView.getOnItemClickListener();
-                AdapterView.OnItemLongClickListener itemLongClickListener = adapterView.getOnItemLongClickListener();
-                AdapterView.OnItemSelectedListener itemSelectedListener = adapterView.getOnItemSelectedListener();
+    /**
+     * Starts refreshing if the refresh layout was pulled past the threshold height, or flung down at
+     * refreshFlingVelocity or faster. The settle animation starts at the given velocity.
+     */
+    private void startRefreshingOrRestoreToInitialState(float velocity) {
+        if (pullTracker.shouldStartRefreshing(getRefreshLayoutOffset(), velocity) && !isRecentlyRefreshed()) {
+            startRefreshing(velocity);
+        } else {
+            // Within minRefreshInterval or while fresh, a full pull just settles back without notifying the listener
+            cancelPreparedRefresh();
+            pullStateMachine.release(false);
+            animateRefreshLayout(0, velocity);
+        }
+    }
 
-                if(itemClickListener != null) {
-                    this.itemClickListener = itemClickListener;
-                    adapterView.setOnItemClickListener(null);
-                }
-                if(itemLongClickListener != null) {
-                    this.itemLongClickListener = itemLongClickListener;
-                    adapterView.setOnItemLongClickListener(null);
-                }
-                if(itemSelectedListener  != null) {
-                    this.itemSelectedListener = itemSelectedListener;
-                    adapterView.setOnItemSelectedListener(null);
-                }
+    private void cancelDragging() {
+        flushRefreshLayoutOffsetUpdate();
+        pullMetricsRecorder.onDragEnd(-1);
+        cancelPreparedRefresh();
+        pullStateMachine.release(false);
+        animateRefreshLayout(0);
+    }
+
+    private void startRefreshing(float velocity) {
+        pullStateMachine.startRefreshing();
+        int traceCookie = ++lastRefreshTraceCookie;
+        refreshTraceCookie = PullToRefreshTrace.beginAsyncSection(TRACE_REFRESH, traceCookie) ? traceCookie : 0;
+        animateRefreshLayout(pullTracker.getThresholdHeight(), velocity);
+        // The prepared refresh is taken over by the refresh that starts now
+        refreshPrepared = false;
+        pullMetricsRecorder.onStartRefresh();
+
+        if (pullToRefreshListener != null) {
+            try {
+                pullToRefreshListener.onStartRefresh(childViewWeakRef.get());
+            } catch (NullPointerException e) {
+                pullToRefreshListener.onStartRefresh(null);
             }
+        } else if (asyncPullToRefreshListener != null) {
+            startRefreshTask(asyncPullToRefreshListener, childViewWeakRef.get());
         }
+    }
 
-        private void restoreItemClickListeners(View view) {
-            if(view instanceof AdapterView) {
-                final AdapterView adapterView = (AdapterView) view;
-
-                Handler handler = new Handler();
-                final Runnable runnable = new Runnable() {
-                    @Override
-                    public void run() {
-                        if(itemClickListener != null)
-                            adapterView.setOnItemClickListener(itemClickListener);
-                        if(itemLongClickListener != null)
-                            adapterView.setOnItemLongClickListener(itemLongClickListener);
-                        if(itemSelectedListener  != null)
-                            adapterView.setOnItemSelectedListener(itemSelectedListener);
-                    }
-                };
-                handler.postDelayed(runnable, 10);
+    /**
+     * Puts the views selected with hardwareLayers on hardware layers while they are only moved, so that they are
+     * composited instead of drawn again on every frame. Views which change size while pulling in the current drag
+     * mode are left alone, and so is a child view which already has a layer type set by the app.
+     */
+    private void setHardwareLayersEnabled(boolean enabled) {
+        if (hardwareLayersEnabled == enabled || (enabled && (hardwareLayers == 0 || !isHardwareAccelerated()))) {
+            return;
+        }
+        hardwareLayersEnabled = enabled;
+
+        View childView = childViewWeakRef != null ? childViewWeakRef.get() : null;
+        if (enabled) {
+            if ((hardwareLayers & HARDWARE_LAYER_CONTENT) != 0 && dragMode == DRAG_MODE_TRANSLATION
+                    && childView != null && childView.getLayerType() == LAYER_TYPE_NONE) {
+                childView.setLayerType(LAYER_TYPE_HARDWARE, null);
+                childViewLayerPromoted = true;
+            }
+            if ((hardwareLayers & HARDWARE_LAYER_HEADER) != 0 && dragMode != DRAG_MODE_MARGIN
+                    && refreshLayout != null) {
+                refreshLayout.setLayerType(LAYER_TYPE_HARDWARE, null);
+            }
+        } else {
+            if (childViewLayerPromoted && childView != null) {
+                childView.setLayerType(LAYER_TYPE_NONE, null);
+            }
+            childViewLayerPromoted = false;
+            if (refreshLayout != null && refreshLayout.getLayerType() == LAYER_TYPE_HARDWARE) {
+                refreshLayout.setLayerType(LAYER_TYPE_NONE, null);
+            }
+        }
+    }
+
+    private boolean isRecentlyRefreshed() {
+        return (lastRefreshDoneTime >= 0 && SystemClock.uptimeMillis() - lastRefreshDoneTime < minRefreshInterval)
+                || isFresh();
+    }
+
+    /**
+     * Applies dy to the drag offset right away, but defers updating the views to the next animation frame
+     * so that touch events arriving faster than the display refreshes only cost one update per frame.
+     */
+    private void moveRefreshLayout(float dy) {
+        boolean traced = PullToRefreshTrace.beginSection(TRACE_MOVE_REFRESH_LAYOUT);
+        try {
+            pullTracker.pull(dy);
+            if (!refreshLayoutOffsetUpdateScheduled) {
+                refreshLayoutOffsetUpdateScheduled = true;
+                ViewCompat.postOnAnimation(this, refreshLayoutOffsetUpdater);
+            }
+        } finally {
+            PullToRefreshTrace.endSection(traced);
+        }
+    }
+
+    private void flushRefreshLayoutOffsetUpdate() {
+        if (refreshLayoutOffsetUpdateScheduled) {
+            removeCallbacks(refreshLayoutOffsetUpdater);
+            refreshLayoutOffsetUpdateScheduled = false;
+            applyDragRefreshLayoutOffset();
+        }
+    }
+
+    private void applyDragRefreshLayoutOffset() {
+        boolean traced = PullToRefreshTrace.beginSection(TRACE_APPLY_DRAG_OFFSET);
+        try {
+            applyRefreshLayoutOffset((int) pullTracker.getOffset());
+            pullStateMachine.drag(pullTracker.isPastThreshold(getRefreshLayoutOffset()));
+            spinOrSetProgressOfRefreshIcon();
+            prepareRefreshIfNeeded();
+        } finally {
+            PullToRefreshTrace.endSection(traced);
+        }
+    }
+
+    private void prepareRefreshIfNeeded() {
+        if (!refreshPrepared && pullToRefreshPrepareListener != null && !isRefreshing()
+                && pullTracker.isPastPreArmThreshold(getRefreshLayoutOffset()) && !isRecentlyRefreshed()) {
+            refreshPrepared = true;
+            pullToRefreshPrepareListener.onPrepareRefresh(childViewWeakRef != null ? childViewWeakRef.get() : null);
+        }
+    }
+
+    private void cancelPreparedRefresh() {
+        if (refreshPrepared) {
+            refreshPrepared = false;
+            if (pullToRefreshPrepareListener != null) {
+                pullToRefreshPrepareListener
+                        .onCancelPrepareRefresh(childViewWeakRef != null ? childViewWeakRef.get() : null);
+            }
+        }
+    }
+
+    private void spinOrSetProgressOfRefreshIcon() {
+        boolean traced = PullToRefreshTrace.beginSection(TRACE_REFRESH_ICON_PROGRESS);
+        try {
+            if (pullTracker.isPastThreshold(getRefreshLayoutOffset())) {
+                if (!refreshIcon.isSpinning()) {
+                    refreshIcon.spin();
+                }
+            } else {
+                refreshIcon.setProgress(pullTracker.getProgress(getRefreshLayoutOffset()));
             }
+        } finally {
+            PullToRefreshTrace.endSection(traced);
         }
     }
 }
@@ -0,0 +1,46 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.support.annotation.Nullable;
+import android.view.View;
+
+/**
+ * Listener to start preparing a refresh while the user is still pulling.
+ * Both methods are called on the main thread.
+ */
+public interface PullToRefreshPrepareListener {
+    /**
+     * Called once per pull when it crosses the pre-arm threshold height.
+     * This is a good time to warm up connections or to issue the request early.
+     *
+     * @param view child view of the {@link PullToRefreshLayout}
+     */
+    void onPrepareRefresh(@Nullable View view);
+
+    /**
+     * Called when the pull that prepared a refresh is released without starting refreshing.
+     * Work started in {@link #onPrepareRefresh(View)} should be cancelled.
+     * If refreshing does start, the listener is notified instead and this is not called.
+     *
+     * @param view child view of the {@link PullToRefreshLayout}
+     */
+    void onCancelPrepareRefresh(@Nullable View view);
+}
@@ -23,9 +23,17 @@ import android.graphics.drawable.Drawable;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.skhugh.simplepulltorefresh.metrics.HistogramPullMetrics;
+import com.skhugh.simplepulltorefresh.metrics.PullMetrics;
+import com.skhugh.simplepulltorefresh.pullresistance.DefaultPullResistance;
+import com.skhugh.simplepulltorefresh.pullresistance.PullResistance;
+import com.skhugh.simplepulltorefresh.pullstate.PullState;
+import com.skhugh.simplepulltorefresh.pullstate.PullStateListener;
 import com.skhugh.simplepulltorefresh.refreshicon.DefaultRefreshIcon;
 import com.skhugh.simplepulltorefresh.refreshicon.RefreshIcon;
 
+import java.util.concurrent.Executor;
+
 public interface PullToRefreshStyler {
     /**
      * Sets pullToRefreshListener which implements {@link PullToRefreshListener}.
@@ -35,6 +43,145 @@ public interface PullToRefreshStyler {
      */
     void setPullToRefreshListener(@NonNull PullToRefreshListener pullToRefreshListener);
 
+    /**
+     * Sets asyncPullToRefreshListener which implements {@link AsyncPullToRefreshListener}.
+     * Its refresh task is run on the refresh executor and refreshing is done automatically when the task finishes.
+     * This replaces the listener set with {@link #setPullToRefreshListener(PullToRefreshListener)},
+     * and a refresh task that is still running is cancelled.
+     *
+     * @param asyncPullToRefreshListener interface to create the refresh task and receive its result
+     */
+    void setAsyncPullToRefreshListener(@NonNull AsyncPullToRefreshListener<?> asyncPullToRefreshListener);
+
+    /**
+     * Sets pullToRefreshPrepareListener which implements {@link PullToRefreshPrepareListener}.
+     * This is used to notify when a pull crosses the pre-arm threshold height, before the user releases it.
+     *
+     * @param pullToRefreshPrepareListener interface to notify when a refresh can be prepared, or null
+     */
+    void setPullToRefreshPrepareListener(@Nullable PullToRefreshPrepareListener pullToRefreshPrepareListener);
+
+    /**
+     * Sets pullStateListener which is notified whenever the pull moves to another {@link PullState},
+     * e.g. from DRAGGING to ARMED once the refresh layout is pulled past the threshold height.
+     *
+     * @param pullStateListener interface to notify of state changes, null to remove it
+     */
+    void setPullStateListener(@Nullable PullStateListener pullStateListener);
+
+    /**
+     * Sets pullProgressListener which follows the offset, progress and state of the pull, e.g. to drive a custom
+     * header or other views along with the refresh layout. It is notified at most once per frame and only when
+     * the offset in whole pixels or the state changed.
+     *
+     * @param pullProgressListener interface to notify of progress, null to remove it
+     */
+    void setPullProgressListener(@Nullable PullProgressListener pullProgressListener);
+
+    /**
+     * Sets loadMoreListener which is called when a RecyclerView or AbsListView child is scrolled within
+     * loadMorePrefetchDistance items of its end. Only one page is loaded at a time, and a footer with a spinning
+     * icon is shown at the bottom while it is loading.
+     *
+     * @param loadMoreListener interface to notify to load the next page, null to stop loading more
+     */
+    void setLoadMoreListener(@Nullable LoadMoreListener loadMoreListener);
+
+    /**
+     * Sets how many items may be left below the last visible item when the next page is requested.
+     * The default is 5.
+     *
+     * @param loadMorePrefetchDistance number of items
+     */
+    void setLoadMorePrefetchDistance(int loadMorePrefetchDistance);
+
+    /**
+     * Sets how long to wait before loading more again after a failure. The delay doubles with every failure in a
+     * row, up to 32 times. The default is 1000 ms.
+     *
+     * @param loadMoreRetryDelay delay in ms
+     */
+    void setLoadMoreRetryDelay(int loadMoreRetryDelay);
+
+    /**
+     * Sets the icon of the load more footer. By default it looks like the refresh icon.
+     *
+     * @param loadMoreIcon icon to spin while loading more
+     */
+    void setLoadMoreIcon(@NonNull RefreshIcon loadMoreIcon);
+
+    /**
+     * Sets pullMetrics which receives pull latency, refresh and settle durations, and per gesture counts of
+     * move events, layout passes and frames over budget. Frames are only counted on Jelly Bean and above.
+     * Nothing is measured while no metrics are set.
+     *
+     * @param pullMetrics metrics to report to, e.g. {@link HistogramPullMetrics}, null to stop measuring
+     */
+    void setPullMetrics(@Nullable PullMetrics pullMetrics);
+
+    /**
+     * Sets the height of the refresh layout at which {@link PullToRefreshPrepareListener} is notified while pulling.
+     * This is usually lower than the threshold height. 0 disables preparing refreshes.
+     * Default value is 0.
+     *
+     * @param preArmThresholdHeightInPx pre-arm threshold height of the refresh layout in px
+     */
+    void setPreArmThresholdHeight(int preArmThresholdHeightInPx);
+
+    /**
+     * Sets the executor to run refresh tasks of {@link AsyncPullToRefreshListener} on.
+     * Default value is AsyncTask.THREAD_POOL_EXECUTOR.
+     *
+     * @param refreshExecutor executor to run refresh tasks on
+     */
+    void setRefreshExecutor(@NonNull Executor refreshExecutor);
+
+    /**
+     * Sets how long a refresh task of {@link AsyncPullToRefreshListener} may run before it is cancelled.
+     * 0 disables the timeout.
+     * Default value is 30000ms.
+     *
+     * @param refreshTimeout timeout of the refresh task in ms
+     */
+    void setRefreshTimeout(int refreshTimeout);
+
+    /**
+     * Sets the minimum interval between the end of a refresh and the start of the next one.
+     * A pull within this interval settles back without notifying the listener.
+     * Default value is 0ms.
+     *
+     * @param minRefreshInterval minimum interval between refreshes in ms
+     */
+    void setMinRefreshInterval(int minRefreshInterval);
+
+    /**
+     * Sets the key under which the time of the last successful refresh is kept in {@link FreshnessStore}.
+     * Layouts showing the same content should share the key. Null disables freshness tracking.
+     * The store is read off the main thread from then on, and the content is not fresh until it has been read.
+     * Default value is null.
+     *
+     * @param freshnessKey key of the content, or null
+     */
+    void setFreshnessKey(@Nullable String freshnessKey);
+
+    /**
+     * Sets how long refreshed content stays fresh. A pull while the content is fresh settles back
+     * without notifying the listener. 0 disables this.
+     * Default value is 0ms.
+     *
+     * @param freshnessTtl time in ms for which refreshed content stays fresh
+     */
+    void setFreshnessTtl(int freshnessTtl);
+
+    /**
+     * Sets whether to start refreshing when PullToRefreshLayout is attached to a window and its content is not fresh.
+     * This needs a freshness key.
+     * Default value is false.
+     *
+     * @param refreshOnAttachIfStale true to refresh stale content on attach
+     */
+    void setRefreshOnAttachIfStale(boolean refreshOnAttachIfStale);
+
     /**
      * Sets padding for the refresh layout.
      * Default value is 4dp.
@@ -106,6 +253,23 @@ public interface PullToRefreshStyler {
      */
     void setRefreshLayoutThresholdHeight(int refreshLayoutThresholdHeightInPx);
 
+    /**
+     * Sets how hard it is to pull the refresh layout down.
+     * Default value is {@link DefaultPullResistance}.
+     *
+     * @param pullResistance resistance curve which implements {@link PullResistance}
+     */
+    void setPullResistance(@NonNull PullResistance pullResistance);
+
+    /**
+     * Sets the downward velocity at which releasing a pull starts refreshing even below the threshold height.
+     * 0 disables fling-to-refresh.
+     * Default value is 0.
+     *
+     * @param refreshFlingVelocityInPxPerSecond fling velocity to start refreshing in px per second
+     */
+    void setRefreshFlingVelocity(int refreshFlingVelocityInPxPerSecond);
+
     /**
      * Sets whether to block user-driven scroll event while refreshing.
      * Default value is true
@@ -113,4 +277,40 @@ public interface PullToRefreshStyler {
      * @param blockScrollWhileRefreshing true to block scroll
      */
     void setBlockScrollWhileRefreshing(boolean blockScrollWhileRefreshing);
+
+    /**
+     * Sets which views are put on hardware layers from the start of a pull until the settle animation ends.
+     * The child view is only put on a layer in {@link PullToRefreshLayout#DRAG_MODE_TRANSLATION},
+     * and the refresh layout in every mode except {@link PullToRefreshLayout#DRAG_MODE_MARGIN},
+     * because they change size while pulling otherwise.
+     * Default value is 0, which uses no layers.
+     *
+     * @param hardwareLayers {@link PullToRefreshLayout#HARDWARE_LAYER_CONTENT} and/or
+     *                       {@link PullToRefreshLayout#HARDWARE_LAYER_HEADER}
+     */
+    void setHardwareLayers(int hardwareLayers);
+
+    /**
+     * Sets how the child view and the refresh layout are moved while pulling.
+     * {@link PullToRefreshLayout#DRAG_MODE_TRANSLATION} moves them with translationY only,
+     * so no layout pass is requested during a pull or the settle animation.
+     * {@link PullToRefreshLayout#DRAG_MODE_OVERLAY} keeps the child view in place and slides the refresh layout
+     * in over it.
+     * A change during a pull or refresh takes effect once the refresh layout is back at its initial position.
+     * Default value is {@link PullToRefreshLayout#DRAG_MODE_MARGIN}.
+     *
+     * @param dragMode {@link PullToRefreshLayout#DRAG_MODE_MARGIN}, {@link PullToRefreshLayout#DRAG_MODE_TRANSLATION}
+     *                 or {@link PullToRefreshLayout#DRAG_MODE_OVERLAY}
+     */
+    void setDragMode(int dragMode);
+
+    /**
+     * Sets whether to create the refresh layout and the refresh icon on the first pull instead of at inflation.
+     * Styles set before that are kept and applied when they are created.
+     * Setting this to false creates them right away. Once created, they are never removed.
+     * Default value is false.
+     *
+     * @param lazyRefreshLayout true to defer creating the refresh layout until the first pull
+     */
+    void setLazyRefreshLayout(boolean lazyRefreshLayout);
 }
@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+import android.util.Log;
+
+import java.lang.reflect.Method;
+
+/**
+ * Trace sections around the hot paths of PullToRefreshLayout, shown in systrace and Perfetto.
+ * Tracing is off by default. While it is off every method returns right away.
+ * Sections need Jelly Bean MR2 or above and are ignored on older versions.
+ * Tracing may be turned on and off at any time: sections only end if they were begun, so begin and end calls stay
+ * balanced across a change.
+ */
+public final class PullToRefreshTrace {
+    private static final String TAG = "PullToRefreshTrace";
+    // Trace.TRACE_TAG_APP, which is hidden
+    private static final long TRACE_TAG_APP = 1L << 12;
+
+    private static boolean enabled = false;
+    private static boolean asyncMethodsLoaded = false;
+    private static Method beginAsyncSectionMethod;
+    private static Method endAsyncSectionMethod;
+
+    private PullToRefreshTrace() {
+    }
+
+    /**
+     * Turns trace sections on or off for all PullToRefreshLayouts.
+     * Async sections are emitted through reflection before Android Q and box their arguments,
+     * so leave tracing off in release builds.
+     *
+     * @param enabled true to emit trace sections
+     */
+    public static void setEnabled(boolean enabled) {
+        PullToRefreshTrace.enabled = enabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Begins a section on the current thread if tracing is on. Every call must be followed by
+     * {@link #endSection(boolean)} with the returned value.
+     *
+     * @param sectionName name of the section, at most 127 characters
+     * @return true if the section was begun
+     */
+    public static boolean beginSection(String sectionName) {
+        if (!enabled || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            return false;
+        }
+        beginTraceSection(sectionName);
+        return true;
+    }
+
+    /**
+     * Ends the section of the matching {@link #beginSection(String)}, also when tracing was turned off in between.
+     *
+     * @param begun value returned by beginSection
+     */
+    public static void endSection(boolean begun) {
+        if (begun && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            endTraceSection();
+        }
+    }
+
+    /**
+     * Begins a section which may end on another frame or thread, if tracing is on.
+     * Only sections which were begun may be ended with {@link #endAsyncSection(String, int)}.
+     *
+     * @param sectionName name of the section, at most 127 characters
+     * @param cookie      tells apart sections of the same name which overlap
+     * @return true if the section was begun
+     */
+    public static boolean beginAsyncSection(String sectionName, int cookie) {
+        if (!enabled) {
+            return false;
+        }
+        invokeAsyncMethod(true, sectionName, cookie);
+        return true;
+    }
+
+    /**
+     * Ends a section begun by {@link #beginAsyncSection(String, int)}, also when tracing was turned off in between.
+     */
+    public static void endAsyncSection(String sectionName, int cookie) {
+        invokeAsyncMethod(false, sectionName, cookie);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static void beginTraceSection(String sectionName) {
+        Trace.beginSection(sectionName);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static void endTraceSection() {
+        Trace.endSection();
+    }
+
+    private static void invokeAsyncMethod(boolean begin, String sectionName, int cookie) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            return;
+        }
+        loadAsyncMethods();
+        Method method = begin ? beginAsyncSectionMethod : endAsyncSectionMethod;
+        if (method == null) {
+            return;
+        }
+        try {
+            if (Build.VERSION.SDK_INT >= 29) {
+                method.invoke(null, sectionName, cookie);
+            } else {
+                method.invoke(null, TRACE_TAG_APP, sectionName, cookie);
+            }
+        } catch (Exception e) {
+            Log.d(TAG, "Could not emit an async trace section", e);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static void loadAsyncMethods() {
+        if (asyncMethodsLoaded) {
+            return;
+        }
+        asyncMethodsLoaded = true;
+        try {
+            if (Build.VERSION.SDK_INT >= 29) {
+                beginAsyncSectionMethod = Trace.class.getMethod("beginAsyncSection", String.class, int.class);
+                endAsyncSectionMethod = Trace.class.getMethod("endAsyncSection", String.class, int.class);
+            } else {
+                beginAsyncSectionMethod = Trace.class
+                        .getMethod("asyncTraceBegin", long.class, String.class, int.class);
+                endAsyncSectionMethod = Trace.class.getMethod("asyncTraceEnd", long.class, String.class, int.class);
+            }
+        } catch (NoSuchMethodException e) {
+            Log.d(TAG, "Async trace sections are not available", e);
+        }
+    }
+}
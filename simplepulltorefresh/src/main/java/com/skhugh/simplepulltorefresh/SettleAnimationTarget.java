@@ -19,7 +19,7 @@
 
 package com.skhugh.simplepulltorefresh;
 
-public interface ChildViewTopMarginCalculator {
-    int calculateNewTopMarginAtInterpolatedTime(int refreshLayoutHeight, float interpolatedTime);
-    int getInitialTopMargin();
+public interface SettleAnimationTarget {
+    void onSettleAnimationUpdate(int refreshLayoutOffset);
+    void onSettleAnimationEnd(int refreshLayoutOffset);
 }
@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.layoutanimation;
+
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+import com.skhugh.simplepulltorefresh.PullToRefreshTrace;
+import com.skhugh.simplepulltorefresh.SettleAnimationTarget;
+import com.skhugh.simplepulltorefresh.physics.SpringSettle;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Runs a {@link SpringSettle} on animation frames of the host view to move the refresh layout offset
+ * to a target offset. One instance is reused for every settle.
+ */
+public class SettleAnimation implements Runnable {
+    private static final String TRACE_SETTLE_FRAME = "PullToRefresh:settleFrame";
+
+    private final WeakReference<View> hostViewWeakRef;
+    private final WeakReference<SettleAnimationTarget> settleAnimationTargetWeakRef;
+    private final SpringSettle springSettle = new SpringSettle();
+    private boolean frameScheduled = false;
+
+    public SettleAnimation(View hostView, SettleAnimationTarget settleAnimationTarget) {
+        hostViewWeakRef = new WeakReference<>(hostView);
+        settleAnimationTargetWeakRef = new WeakReference<>(settleAnimationTarget);
+    }
+
+    /**
+     * Sets the stiffness of the spring. Higher values settle faster.
+     *
+     * @param stiffness stiffness of the spring, must be positive
+     */
+    public void setStiffness(float stiffness) {
+        springSettle.setStiffness(stiffness);
+    }
+
+    /**
+     * Starts moving from fromOffset to toOffset. If the animation is already running it is retargeted.
+     *
+     * @param fromOffset offset to start from in px
+     * @param toOffset   offset to settle at in px
+     * @param velocity   initial velocity in px per second, positive values move the offset down
+     */
+    public void start(float fromOffset, int toOffset, float velocity) {
+        springSettle.start(fromOffset, toOffset, velocity, AnimationUtils.currentAnimationTimeMillis());
+
+        View hostView = hostViewWeakRef.get();
+        if (!frameScheduled && hostView != null) {
+            frameScheduled = true;
+            ViewCompat.postOnAnimation(hostView, this);
+        }
+    }
+
+    /**
+     * Stops the animation where it is, without notifying the end.
+     */
+    public void cancel() {
+        springSettle.cancel();
+        if (frameScheduled) {
+            frameScheduled = false;
+            View hostView = hostViewWeakRef.get();
+            if (hostView != null) {
+                hostView.removeCallbacks(this);
+            }
+        }
+    }
+
+    /**
+     * Stops the animation and jumps to the target offset.
+     */
+    public void end() {
+        if (springSettle.isRunning()) {
+            cancel();
+            springSettle.end();
+            SettleAnimationTarget settleAnimationTarget = settleAnimationTargetWeakRef.get();
+            if (settleAnimationTarget != null) {
+                settleAnimationTarget.onSettleAnimationEnd(springSettle.getTargetOffset());
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return springSettle.isRunning();
+    }
+
+    public float getCurrentOffset() {
+        return springSettle.getCurrentOffset();
+    }
+
+    public float getCurrentVelocity() {
+        return springSettle.getCurrentVelocity();
+    }
+
+    @Override
+    public void run() {
+        boolean traced = PullToRefreshTrace.beginSection(TRACE_SETTLE_FRAME);
+        try {
+            runFrame();
+        } finally {
+            PullToRefreshTrace.endSection(traced);
+        }
+    }
+
+    private void runFrame() {
+        frameScheduled = false;
+        SettleAnimationTarget settleAnimationTarget = settleAnimationTargetWeakRef.get();
+        View hostView = hostViewWeakRef.get();
+        if (!springSettle.isRunning() || settleAnimationTarget == null || hostView == null) {
+            springSettle.cancel();
+            return;
+        }
+
+        if (springSettle.update(AnimationUtils.currentAnimationTimeMillis())) {
+            settleAnimationTarget.onSettleAnimationUpdate(Math.round(springSettle.getCurrentOffset()));
+            frameScheduled = true;
+            ViewCompat.postOnAnimation(hostView, this);
+        } else {
+            settleAnimationTarget.onSettleAnimationEnd(springSettle.getTargetOffset());
+        }
+    }
+}
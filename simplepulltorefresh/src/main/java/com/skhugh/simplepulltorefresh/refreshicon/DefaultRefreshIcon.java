@@ -22,32 +22,33 @@ package com.skhugh.simplepulltorefresh.refreshicon;
 import android.content.Context;
 import android.support.annotation.NonNull;
 import android.view.View;
+import android.widget.ImageView;
 import android.widget.RelativeLayout;
 
-import com.pnikosis.materialishprogress.ProgressWheel;
-
 public class DefaultRefreshIcon implements RefreshIcon {
-    private ProgressWheel refreshIcon;
+    private ImageView refreshIcon;
+    private ProgressArcDrawable progressArcDrawable;
 
     public DefaultRefreshIcon(@NonNull Context context, int refreshIconColor, int refreshIconSize,
             int refreshIconSpinDuration) {
-        refreshIcon = new ProgressWheel(context);
+        progressArcDrawable = new ProgressArcDrawable(refreshIconColor, refreshIconSize, refreshIconSpinDuration);
+        refreshIcon = new ImageView(context);
         RelativeLayout.LayoutParams refreshIconLayoutParams = new RelativeLayout.LayoutParams(refreshIconSize,
                 refreshIconSize);
         refreshIconLayoutParams.addRule(RelativeLayout.CENTER_IN_PARENT);
-        setSpinSpeed(refreshIconSpinDuration);
         refreshIcon.setLayoutParams(refreshIconLayoutParams);
-        refreshIcon.setBarColor(refreshIconColor);
-        refreshIcon.setCircleRadius(refreshIconSize);
-        refreshIcon.setProgress(0);
+        refreshIcon.setImageDrawable(progressArcDrawable);
     }
 
     public void setRefreshIconColor(int refreshIconColor) {
-        refreshIcon.setBarColor(refreshIconColor);
+        progressArcDrawable.setColor(refreshIconColor);
     }
 
     public void setRefreshIconSize(int refreshIconSize) {
-        refreshIcon.setCircleRadius(refreshIconSize);
+        progressArcDrawable.setSize(refreshIconSize);
+        refreshIcon.getLayoutParams().width = refreshIconSize;
+        refreshIcon.getLayoutParams().height = refreshIconSize;
+        refreshIcon.requestLayout();
     }
 
     @NonNull
@@ -58,25 +59,21 @@ public class DefaultRefreshIcon implements RefreshIcon {
 
     @Override
     public void setProgress(float progress) {
-        if (refreshIcon.isSpinning()) {
-            refreshIcon.setInstantProgress(progress);
-        } else {
-            refreshIcon.setProgress(progress);
-        }
+        progressArcDrawable.setProgress(progress);
     }
 
     @Override
     public void spin() {
-        refreshIcon.spin();
+        progressArcDrawable.start();
     }
 
     @Override
     public void setSpinSpeed(int spinSpeed) {
-        refreshIcon.setSpinSpeed(1 / (spinSpeed / 1000f));
+        progressArcDrawable.setSpinDuration(spinSpeed);
     }
 
     @Override
     public boolean isSpinning() {
-        return refreshIcon.isSpinning();
+        return progressArcDrawable.isRunning();
     }
 }
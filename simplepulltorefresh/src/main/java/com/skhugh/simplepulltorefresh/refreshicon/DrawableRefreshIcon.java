@@ -33,6 +33,7 @@ public class DrawableRefreshIcon implements RefreshIcon {
     private ImageView imageView;
     private boolean isSpinning = false;
     private int refreshIconSpinDuration;
+    private Animation spinningAnimation;
 
     public DrawableRefreshIcon(@NonNull Context context, @NonNull Drawable refreshIconDrawable, int refreshIconSize,
             int refreshIconSpinDuration) {
@@ -62,16 +63,26 @@ public class DrawableRefreshIcon implements RefreshIcon {
     public void spin() {
         isSpinning = true;
         imageView.clearAnimation();
-        imageView.startAnimation(createSpinningAnimation());
+        if (spinningAnimation == null) {
+            spinningAnimation = createSpinningAnimation();
+        }
+        imageView.startAnimation(spinningAnimation);
     }
 
     @Override
     public void setSpinSpeed(int spinSpeed) {
         refreshIconSpinDuration = spinSpeed;
+        if (spinningAnimation != null) {
+            spinningAnimation.setDuration(spinSpeed);
+        }
     }
 
+    /**
+     * The animation rotates relative to the current rotation of the view, so one instance can be reused
+     * for every spin.
+     */
     private Animation createSpinningAnimation() {
-        RotateAnimation rotateAnimation = new RotateAnimation(imageView.getRotation(), imageView.getRotation() + 360,
+        RotateAnimation rotateAnimation = new RotateAnimation(0, 360,
                 Animation.RELATIVE_TO_SELF, 0.5f, Animation.RELATIVE_TO_SELF, 0.5f);
         rotateAnimation.setRepeatCount(Animation.INFINITE);
         rotateAnimation.setRepeatMode(Animation.RESTART);
@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.refreshicon;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Draws the default refresh icon as a single arc.
+ * <p>
+ * While pulling, the arc grows with the progress, which is quantized to whole degrees so that progress updates
+ * that would not change a pixel do not invalidate. While spinning, a fixed arc rotates on frames scheduled through
+ * {@link #scheduleSelf(Runnable, long)}, which the host view runs on its animation frames. Spinning is paused
+ * whenever the drawable is not visible.
+ */
+public class ProgressArcDrawable extends Drawable implements Animatable, Runnable {
+    private static final int FRAME_DURATION = 16;
+    private static final float SPINNING_SWEEP_ANGLE = 270f;
+    private static final float START_ANGLE = -90f;
+    private static final float BAR_WIDTH_RATIO = 0.1f;
+
+    private final Paint barPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF arcBounds = new RectF();
+    private int size;
+    private int spinDuration;
+    private int sweepAngle = 0;
+    private boolean spinning = false;
+    private long spinStartTime;
+
+    public ProgressArcDrawable(int color, int size, int spinDuration) {
+        barPaint.setStyle(Paint.Style.STROKE);
+        barPaint.setStrokeCap(Paint.Cap.ROUND);
+        barPaint.setColor(color);
+        setSpinDuration(spinDuration);
+        setSize(size);
+    }
+
+    public void setColor(int color) {
+        barPaint.setColor(color);
+        invalidateSelf();
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+        barPaint.setStrokeWidth(Math.max(1f, size * BAR_WIDTH_RATIO));
+        updateArcBounds(getBounds());
+        invalidateSelf();
+    }
+
+    public void setSpinDuration(int spinDuration) {
+        this.spinDuration = Math.max(1, spinDuration);
+    }
+
+    /**
+     * Stops spinning and shows the given progress.
+     *
+     * @param progress progress from 0 to 1
+     */
+    public void setProgress(float progress) {
+        int newSweepAngle = (int) (Math.max(0f, Math.min(1f, progress)) * 360);
+        if (!spinning && newSweepAngle == sweepAngle) {
+            return;
+        }
+
+        stop();
+        sweepAngle = newSweepAngle;
+        invalidateSelf();
+    }
+
+    @Override
+    public void start() {
+        if (spinning) {
+            return;
+        }
+
+        spinning = true;
+        spinStartTime = SystemClock.uptimeMillis();
+        if (isVisible()) {
+            scheduleSelf(this, spinStartTime + FRAME_DURATION);
+        }
+        invalidateSelf();
+    }
+
+    @Override
+    public void stop() {
+        if (spinning) {
+            spinning = false;
+            unscheduleSelf(this);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return spinning;
+    }
+
+    @Override
+    public void run() {
+        if (spinning && isVisible()) {
+            invalidateSelf();
+            scheduleSelf(this, SystemClock.uptimeMillis() + FRAME_DURATION);
+        }
+    }
+
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+        if (changed && spinning) {
+            if (visible) {
+                scheduleSelf(this, SystemClock.uptimeMillis() + FRAME_DURATION);
+            } else {
+                unscheduleSelf(this);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (spinning) {
+            long elapsed = (SystemClock.uptimeMillis() - spinStartTime) % spinDuration;
+            canvas.drawArc(arcBounds, START_ANGLE + elapsed * 360f / spinDuration, SPINNING_SWEEP_ANGLE, false,
+                    barPaint);
+        } else if (sweepAngle > 0) {
+            canvas.drawArc(arcBounds, START_ANGLE, sweepAngle, false, barPaint);
+        }
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        updateArcBounds(bounds);
+    }
+
+    private void updateArcBounds(Rect bounds) {
+        float inset = barPaint.getStrokeWidth() / 2;
+        float diameter = Math.min(bounds.width(), bounds.height());
+        arcBounds.set(bounds.centerX() - diameter / 2 + inset, bounds.centerY() - diameter / 2 + inset,
+                bounds.centerX() + diameter / 2 - inset, bounds.centerY() + diameter / 2 - inset);
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return size;
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return size;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        barPaint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        barPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
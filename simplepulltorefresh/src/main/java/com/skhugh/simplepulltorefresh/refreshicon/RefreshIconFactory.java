@@ -24,13 +24,22 @@ import android.graphics.drawable.Drawable;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.skhugh.simplepulltorefresh.PullToRefreshTrace;
+
 public abstract class RefreshIconFactory {
+    private static final String TRACE_CREATE_REFRESH_ICON = "PullToRefresh:createRefreshIcon";
+
     public static RefreshIcon createRefreshIcon(@NonNull Context context, int refreshIconColor, int refreshIconSize,
             int refreshIconSpinDuration, @Nullable Drawable refreshIconDrawable) {
-        if (refreshIconDrawable == null)
-            return new DefaultRefreshIcon(context, refreshIconColor, refreshIconSize, refreshIconSpinDuration);
-        else
-            return new DrawableRefreshIcon(context, refreshIconDrawable, refreshIconSize, refreshIconSpinDuration);
+        boolean traced = PullToRefreshTrace.beginSection(TRACE_CREATE_REFRESH_ICON);
+        try {
+            if (refreshIconDrawable == null)
+                return new DefaultRefreshIcon(context, refreshIconColor, refreshIconSize, refreshIconSpinDuration);
+            else
+                return new DrawableRefreshIcon(context, refreshIconDrawable, refreshIconSize, refreshIconSpinDuration);
+        } finally {
+            PullToRefreshTrace.endSection(traced);
+        }
     }
 }
 
@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.app.Activity;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.robolectric.Robolectric;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowChoreographer;
+
+/**
+ * Runs the frames of an activity's content view under Robolectric, on the paused foreground scheduler, so that tests
+ * see the same event and frame times on every run. Each frame runs the work posted for it, then a layout pass of the
+ * content view if one was requested, like a real frame would.
+ * Tests have to add {@link ShadowFrameChoreographer} to the shadows of their Config and call {@link #finish()} when
+ * they are done, e.g. in an After method.
+ */
+public class FrameDriver {
+    public static final int FRAME_TIME = 16;
+
+    private final View contentView;
+    private final int width;
+    private final int height;
+
+    /**
+     * Sets contentView as the content view of activity at the given size, pauses the foreground scheduler and runs
+     * the first frame.
+     *
+     * @throws IllegalStateException if the test does not use {@link ShadowFrameChoreographer}
+     */
+    public FrameDriver(Activity activity, View contentView, int width, int height) {
+        if (!(Shadows.shadowOf(Choreographer.getInstance()) instanceof ShadowFrameChoreographer)) {
+            throw new IllegalStateException("Add FrameDriver.ShadowFrameChoreographer to the shadows of the test");
+        }
+        this.contentView = contentView;
+        this.width = width;
+        this.height = height;
+        activity.setContentView(contentView, new ViewGroup.LayoutParams(width, height));
+        Robolectric.getForegroundThreadScheduler().pause();
+        runFrame();
+    }
+
+    /**
+     * @return true if the frame ran a layout pass
+     */
+    public boolean runFrame() {
+        Robolectric.getForegroundThreadScheduler().advanceBy(FRAME_TIME);
+        return layoutIfRequested();
+    }
+
+    /**
+     * Runs the layout pass of a frame without advancing the clock, for tests that run the rest of the frame
+     * themselves.
+     *
+     * @return true if a layout pass ran
+     */
+    public boolean layoutIfRequested() {
+        if (!contentView.isLayoutRequested()) {
+            return false;
+        }
+        contentView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        contentView.layout(0, 0, width, height);
+        return true;
+    }
+
+    public void runFrames(int frameCount) {
+        for (int i = 0; i < frameCount; i++) {
+            runFrame();
+        }
+    }
+
+    /**
+     * Advances the clock without running a layout pass, e.g. to run work posted with a delay.
+     */
+    public void advanceBy(long time) {
+        Robolectric.getForegroundThreadScheduler().advanceBy(time);
+    }
+
+    public void finish() {
+        Robolectric.getForegroundThreadScheduler().unPause();
+    }
+
+    /**
+     * Runs animation and frame callbacks in the frame after the one they are posted in, like a real Choreographer.
+     * Robolectric runs them as soon as they are posted, so an animation which posts itself again on every frame would
+     * never let {@link #runFrame()} return.
+     */
+    @Implements(Choreographer.class)
+    public static class ShadowFrameChoreographer extends ShadowChoreographer {
+        @Override
+        @Implementation
+        public void postCallbackDelayed(int callbackType, Runnable action, Object token, long delayMillis) {
+            super.postCallbackDelayed(callbackType, action, token, delayMillis + FRAME_TIME);
+        }
+
+        @Override
+        @Implementation
+        public void postFrameCallbackDelayed(Choreographer.FrameCallback callback, long delayMillis) {
+            super.postFrameCallbackDelayed(callback, delayMillis + FRAME_TIME);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link FreshnessStore} reads and writes its file off the main thread, in batches.
+ * The io executor runs tasks right away but counts them, and main thread tasks only run when the test advances
+ * the clock.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FreshnessStoreTest {
+    private static final long TTL = 60000;
+    private static final long WRITE_DELAY = 1000;
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File file;
+    private CountingExecutor ioExecutor;
+    private FreshnessStore freshnessStore;
+
+    @Before
+    public void setUp() throws IOException {
+        file = new File(temporaryFolder.getRoot(), "freshness");
+        ioExecutor = new CountingExecutor();
+        freshnessStore = new FreshnessStore(file, ioExecutor);
+        Robolectric.getForegroundThreadScheduler().pause();
+    }
+
+    @After
+    public void tearDown() {
+        Robolectric.getForegroundThreadScheduler().unPause();
+    }
+
+    @Test
+    public void isNotFreshUntilLoaded() throws IOException {
+        Map<String, Long> lastRefreshTimes = new HashMap<>();
+        lastRefreshTimes.put("key", System.currentTimeMillis());
+        writeFile(lastRefreshTimes);
+
+        assertFalse(freshnessStore.isFresh("key", TTL));
+        assertEquals("io tasks started by isFresh", 1, ioExecutor.taskCount);
+
+        Robolectric.getForegroundThreadScheduler().advanceToLastPostedRunnable();
+        assertTrue(freshnessStore.isLoaded());
+        assertTrue(freshnessStore.isFresh("key", TTL));
+        assertEquals("io tasks after loading", 1, ioExecutor.taskCount);
+    }
+
+    @Test
+    public void expiresAfterTtl() throws IOException {
+        long now = System.currentTimeMillis();
+        Map<String, Long> lastRefreshTimes = new HashMap<>();
+        lastRefreshTimes.put("old", now - 2 * TTL);
+        lastRefreshTimes.put("future", now + TTL);
+        writeFile(lastRefreshTimes);
+        load(freshnessStore);
+
+        assertFalse(freshnessStore.isFresh("old", TTL));
+        assertTrue(freshnessStore.isFresh("old", 3 * TTL));
+        // A time in the future can not be trusted
+        assertFalse(freshnessStore.isFresh("future", 3 * TTL));
+        assertFalse(freshnessStore.isFresh("never", TTL));
+    }
+
+    @Test
+    public void batchesWrites() {
+        load(freshnessStore);
+        int loadTaskCount = ioExecutor.taskCount;
+
+        freshnessStore.markRefreshed("first");
+        freshnessStore.markRefreshed("second");
+        freshnessStore.invalidate("first");
+        assertEquals("io tasks before the write delay", loadTaskCount, ioExecutor.taskCount);
+        assertFalse(file.exists());
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(WRITE_DELAY);
+        assertEquals("io tasks after the write delay", loadTaskCount + 1, ioExecutor.taskCount);
+
+        FreshnessStore reloadedStore = new FreshnessStore(file, ioExecutor);
+        load(reloadedStore);
+        assertEquals(-1, reloadedStore.getLastRefreshTime("first"));
+        assertTrue(reloadedStore.isFresh("second", TTL));
+    }
+
+    @Test
+    public void reloadsFromFile() {
+        load(freshnessStore);
+        freshnessStore.markRefreshed("key");
+        long lastRefreshTime = freshnessStore.getLastRefreshTime("key");
+        Robolectric.getForegroundThreadScheduler().advanceBy(WRITE_DELAY);
+
+        FreshnessStore reloadedStore = new FreshnessStore(file, ioExecutor);
+        load(reloadedStore);
+        assertEquals(lastRefreshTime, reloadedStore.getLastRefreshTime("key"));
+    }
+
+    @Test
+    public void keepsChangesMadeWhileLoading() throws IOException {
+        Map<String, Long> lastRefreshTimes = new HashMap<>();
+        lastRefreshTimes.put("refreshed", 1L);
+        lastRefreshTimes.put("invalidated", System.currentTimeMillis());
+        writeFile(lastRefreshTimes);
+
+        freshnessStore.markRefreshed("refreshed");
+        freshnessStore.invalidate("invalidated");
+        Robolectric.getForegroundThreadScheduler().advanceToLastPostedRunnable();
+
+        assertTrue(freshnessStore.isFresh("refreshed", TTL));
+        assertFalse(freshnessStore.isFresh("invalidated", TTL));
+
+        FreshnessStore reloadedStore = new FreshnessStore(file, ioExecutor);
+        load(reloadedStore);
+        assertTrue(reloadedStore.isFresh("refreshed", TTL));
+        assertEquals(-1, reloadedStore.getLastRefreshTime("invalidated"));
+    }
+
+    @Test
+    public void notifiesWhenLoaded() {
+        final int[] loadedCount = new int[1];
+        Runnable onLoaded = new Runnable() {
+            @Override
+            public void run() {
+                loadedCount[0]++;
+            }
+        };
+
+        freshnessStore.load(onLoaded);
+        freshnessStore.load(onLoaded);
+        assertEquals(0, loadedCount[0]);
+        Robolectric.getForegroundThreadScheduler().advanceToLastPostedRunnable();
+        assertEquals(2, loadedCount[0]);
+
+        freshnessStore.load(onLoaded);
+        Robolectric.getForegroundThreadScheduler().advanceToLastPostedRunnable();
+        assertEquals(3, loadedCount[0]);
+        assertEquals("io tasks", 1, ioExecutor.taskCount);
+    }
+
+    private static void load(FreshnessStore freshnessStore) {
+        freshnessStore.load(null);
+        Robolectric.getForegroundThreadScheduler().advanceToLastPostedRunnable();
+    }
+
+    /**
+     * Writes the entries in the format of {@link FreshnessStore}, which has version 1.
+     */
+    private void writeFile(Map<String, Long> lastRefreshTimes) throws IOException {
+        DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(file));
+        try {
+            outputStream.writeInt(1);
+            outputStream.writeInt(lastRefreshTimes.size());
+            for (Map.Entry<String, Long> entry : lastRefreshTimes.entrySet()) {
+                outputStream.writeUTF(entry.getKey());
+                outputStream.writeLong(entry.getValue());
+            }
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private static class CountingExecutor implements Executor {
+        int taskCount = 0;
+
+        @Override
+        public void execute(Runnable runnable) {
+            taskCount++;
+            runnable.run();
+        }
+    }
+}
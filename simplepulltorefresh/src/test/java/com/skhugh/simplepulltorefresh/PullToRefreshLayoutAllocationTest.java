@@ -0,0 +1,456 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.accessibility.AccessibilityManager;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.RelativeLayout;
+
+import com.skhugh.simplepulltorefresh.pullstate.PullState;
+import com.skhugh.simplepulltorefresh.refreshicon.RefreshIcon;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.internal.Shadow;
+import org.robolectric.shadows.ShadowAccessibilityManager;
+import org.robolectric.shadows.ShadowFrameLayout;
+import org.robolectric.shadows.ShadowLinearLayout;
+import org.robolectric.shadows.ShadowRelativeLayout;
+import org.robolectric.util.ReflectionHelpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a whole gesture, DOWN, MOVE and UP, then the refresh and the settle back to the initial position,
+ * allocates nothing once warmed up. The layout is attached to an activity and the bytes of every frame run in between
+ * are counted, so the animation callbacks and the layout passes they request are measured with the touch events.
+ * Robolectric allocates where the platform does not, so the test keeps its own allocations out of the count. It
+ * allocates a wrapper for every runnable posted to its scheduler, so the layout queues its animation callbacks in a
+ * preallocated array that the test runs as frames, and the view root is told a traversal is already scheduled, so
+ * invalidations and layout requests never post one. The test runs the layout passes itself instead. The touch events
+ * go straight to the layout, since Robolectric copies a MotionEvent for every child it dispatches to, and the shadows
+ * below replace the ones that box velocity samples, create an AccessibilityManager on every lookup and proxy every
+ * requestLayout.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, shadows = {
+        FrameDriver.ShadowFrameChoreographer.class,
+        PullToRefreshLayoutAllocationTest.ShadowTwoSampleVelocityTracker.class,
+        PullToRefreshLayoutAllocationTest.ShadowSingleAccessibilityManager.class,
+        PullToRefreshLayoutAllocationTest.ShadowDirectFrameLayout.class,
+        PullToRefreshLayoutAllocationTest.ShadowDirectLinearLayout.class,
+        PullToRefreshLayoutAllocationTest.ShadowDirectRelativeLayout.class})
+public class PullToRefreshLayoutAllocationTest {
+    private static final int LAYOUT_SIZE = 1000;
+    private static final int MOVE_COUNT = 240;
+    private static final int MOVES_PER_FRAME = 2;
+    private static final int REFRESH_FRAME_COUNT = 30;
+    private static final int MAX_SETTLE_FRAME_COUNT = 600;
+    private static final int MAX_MEASURED_GESTURE_COUNT = 10;
+
+    private FrameQueueLayout pullToRefreshLayout;
+    private FrameDriver frameDriver;
+    private ViewParent viewRoot;
+    private boolean refreshStarted;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+
+        pullToRefreshLayout = new FrameQueueLayout(activity);
+        // The default icon spins through View.scheduleDrawable, which goes through Robolectric's scheduler
+        pullToRefreshLayout.setRefreshIcon(new StillRefreshIcon(new StaticView(activity)));
+        // Margin mode lays out the content on every move, and the shadow of a plain View would proxy requestLayout
+        pullToRefreshLayout.addView(new FrameLayout(activity),
+                new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                        ViewGroup.LayoutParams.MATCH_PARENT));
+        pullToRefreshLayout.setPullToRefreshListener(new PullToRefreshListener() {
+            @Override
+            public void onStartRefresh(@Nullable View view) {
+                refreshStarted = true;
+            }
+        });
+
+        frameDriver = new FrameDriver(activity, pullToRefreshLayout, LAYOUT_SIZE, LAYOUT_SIZE);
+        // The parent of the decor view is the hidden ViewRootImpl
+        viewRoot = pullToRefreshLayout.getRootView().getParent();
+        setTraversalScheduled(true);
+    }
+
+    @After
+    public void tearDown() {
+        ShadowSingleAccessibilityManager.reset();
+        setTraversalScheduled(false);
+        frameDriver.finish();
+    }
+
+    @Test
+    public void gestureDoesNotAllocateInMarginMode() {
+        pullToRefreshLayout.setDragMode(PullToRefreshLayout.DRAG_MODE_MARGIN);
+        assertGestureDoesNotAllocate();
+    }
+
+    @Test
+    public void gestureDoesNotAllocateInTranslationMode() {
+        pullToRefreshLayout.setDragMode(PullToRefreshLayout.DRAG_MODE_TRANSLATION);
+        assertGestureDoesNotAllocate();
+    }
+
+    @Test
+    public void gestureDoesNotAllocateInOverlayMode() {
+        pullToRefreshLayout.setDragMode(PullToRefreshLayout.DRAG_MODE_OVERLAY);
+        assertGestureDoesNotAllocate();
+    }
+
+    private void assertGestureDoesNotAllocate() {
+        // The first gestures warm up lazily created objects, pools and measure caches
+        replayGesture();
+        replayGesture();
+        int animationCallbackCountBefore = pullToRefreshLayout.getRunCallbackCount();
+        // View measure caches and the method handles Robolectric calls shadows through still grow now and then after
+        // the warm-up, once each, while an allocation of the layout shows up in every gesture
+        long allocatedBytes = replayGesture();
+        for (int i = 1; i < MAX_MEASURED_GESTURE_COUNT && allocatedBytes != 0; i++) {
+            allocatedBytes = Math.min(allocatedBytes, replayGesture());
+        }
+
+        assertTrue("the gesture did not run any animation callbacks",
+                pullToRefreshLayout.getRunCallbackCount() > animationCallbackCountBefore);
+        assertEquals("fewest bytes allocated during a gesture, refresh and settle", 0, allocatedBytes);
+    }
+
+    /**
+     * Pulls past the refresh threshold, releases, finishes the refresh and runs frames until the refresh layout is
+     * back at its initial position. All MotionEvents are obtained before measuring, with the times they are
+     * dispatched at.
+     *
+     * @return bytes allocated by the current thread from DOWN until the layout is idle again
+     */
+    private long replayGesture() {
+        refreshStarted = false;
+        long downTime = SystemClock.uptimeMillis();
+        int moveFrameCount = MOVE_COUNT / MOVES_PER_FRAME;
+        MotionEvent[] moves = new MotionEvent[MOVE_COUNT];
+        float y = 0;
+        for (int i = 0; i < MOVE_COUNT; i++) {
+            // Pull down, but back off every third event so both directions are exercised
+            y += i % 3 == 2 ? -2 : 6;
+            long eventTime = downTime + (i / MOVES_PER_FRAME) * FrameDriver.FRAME_TIME;
+            moves[i] = MotionEvent.obtain(downTime, eventTime, MotionEvent.ACTION_MOVE, 0, y, 0);
+        }
+        MotionEvent down = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, 0, 0, 0);
+        MotionEvent up = MotionEvent.obtain(downTime, downTime + moveFrameCount * FrameDriver.FRAME_TIME,
+                MotionEvent.ACTION_UP, 0, y, 0);
+
+        long allocatedBytesBefore = AllocationCounter.getAllocatedBytes();
+        // No child takes the DOWN, so the parent hands every later event straight to onTouchEvent
+        pullToRefreshLayout.onInterceptTouchEvent(down);
+        pullToRefreshLayout.onTouchEvent(down);
+        for (int i = 0; i < MOVE_COUNT; i++) {
+            pullToRefreshLayout.onTouchEvent(moves[i]);
+            if (i % MOVES_PER_FRAME == MOVES_PER_FRAME - 1) {
+                runFrame();
+            }
+        }
+        pullToRefreshLayout.onTouchEvent(up);
+        for (int i = 0; i < REFRESH_FRAME_COUNT; i++) {
+            runFrame();
+        }
+        boolean refreshStartedByGesture = refreshStarted;
+        pullToRefreshLayout.refreshDone();
+        for (int i = 0; i < MAX_SETTLE_FRAME_COUNT && pullToRefreshLayout.getPullState() != PullState.IDLE; i++) {
+            runFrame();
+        }
+        long allocatedBytes = AllocationCounter.getAllocatedBytes() - allocatedBytesBefore;
+
+        assertTrue("the gesture did not start a refresh", refreshStartedByGesture);
+        assertEquals("the refresh layout did not settle", PullState.IDLE, pullToRefreshLayout.getPullState());
+        down.recycle();
+        for (MotionEvent move : moves) {
+            move.recycle();
+        }
+        up.recycle();
+        return allocatedBytes;
+    }
+
+    private void runFrame() {
+        frameDriver.advanceBy(FrameDriver.FRAME_TIME);
+        pullToRefreshLayout.runAnimationCallbacks();
+        frameDriver.layoutIfRequested();
+    }
+
+    private void setTraversalScheduled(boolean traversalScheduled) {
+        ReflectionHelpers.setField(viewRoot, "mTraversalScheduled", traversalScheduled);
+    }
+
+    /**
+     * Queues the callbacks posted with postOnAnimation in a fixed array until the test runs them. Only those callbacks
+     * can be removed, which is all the layout posts during a gesture.
+     */
+    private static class FrameQueueLayout extends PullToRefreshLayout {
+        private static final int MAX_CALLBACK_COUNT = 16;
+
+        private final Runnable[] callbacks = new Runnable[MAX_CALLBACK_COUNT];
+        private final Runnable[] runningCallbacks = new Runnable[MAX_CALLBACK_COUNT];
+        private int callbackCount = 0;
+        private int runCallbackCount = 0;
+
+        FrameQueueLayout(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void postOnAnimation(Runnable action) {
+            callbacks[callbackCount++] = action;
+        }
+
+        @Override
+        public boolean removeCallbacks(Runnable action) {
+            boolean removed = false;
+            for (int i = callbackCount - 1; i >= 0; i--) {
+                if (callbacks[i] == action) {
+                    System.arraycopy(callbacks, i + 1, callbacks, i, callbackCount - i - 1);
+                    callbacks[--callbackCount] = null;
+                    removed = true;
+                }
+            }
+            // A callback removed while the frame runs must not run in that frame either
+            for (int i = 0; i < MAX_CALLBACK_COUNT; i++) {
+                if (runningCallbacks[i] == action) {
+                    runningCallbacks[i] = null;
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        void runAnimationCallbacks() {
+            int count = callbackCount;
+            System.arraycopy(callbacks, 0, runningCallbacks, 0, count);
+            for (int i = 0; i < count; i++) {
+                callbacks[i] = null;
+            }
+            callbackCount = 0;
+            for (int i = 0; i < count; i++) {
+                Runnable callback = runningCallbacks[i];
+                runningCallbacks[i] = null;
+                if (callback != null) {
+                    callback.run();
+                    runCallbackCount++;
+                }
+            }
+        }
+
+        int getRunCallbackCount() {
+            return runCallbackCount;
+        }
+    }
+
+    private static class StillRefreshIcon implements RefreshIcon {
+        private final View iconView;
+        private boolean spinning = false;
+
+        StillRefreshIcon(View iconView) {
+            this.iconView = iconView;
+        }
+
+        @NonNull
+        @Override
+        public View getIconView() {
+            return iconView;
+        }
+
+        @Override
+        public void setProgress(float progress) {
+            spinning = false;
+        }
+
+        @Override
+        public void spin() {
+            spinning = true;
+        }
+
+        @Override
+        public void setSpinSpeed(int spinSpeed) {
+        }
+
+        @Override
+        public boolean isSpinning() {
+            return spinning;
+        }
+    }
+
+    /**
+     * Keeps the last two samples of the first pointer in fields, where Robolectric's VelocityTracker boxes every
+     * sample.
+     */
+    @Implements(VelocityTracker.class)
+    public static class ShadowTwoSampleVelocityTracker {
+        private int sampleCount = 0;
+        private float lastY;
+        private long lastEventTime;
+        private float previousY;
+        private long previousEventTime;
+        private float yVelocity = 0;
+
+        @Implementation
+        public void clear() {
+            sampleCount = 0;
+            yVelocity = 0;
+        }
+
+        @Implementation
+        public void addMovement(MotionEvent event) {
+            previousY = lastY;
+            previousEventTime = lastEventTime;
+            lastY = event.getY();
+            lastEventTime = event.getEventTime();
+            sampleCount++;
+        }
+
+        @Implementation
+        public void computeCurrentVelocity(int units, float maxVelocity) {
+            long duration = lastEventTime - previousEventTime;
+            if (sampleCount < 2 || duration <= 0) {
+                yVelocity = 0;
+                return;
+            }
+            yVelocity = Math.max(-maxVelocity, Math.min((lastY - previousY) * units / duration, maxVelocity));
+        }
+
+        @Implementation
+        public float getYVelocity(int pointerId) {
+            return yVelocity;
+        }
+    }
+
+    /**
+     * Returns the same AccessibilityManager on every call, like the platform does, where Robolectric creates one for
+     * each call, e.g. every time a view is laid out at a new position.
+     */
+    @Implements(AccessibilityManager.class)
+    public static class ShadowSingleAccessibilityManager extends ShadowAccessibilityManager {
+        private static AccessibilityManager instance;
+
+        @Implementation
+        public static AccessibilityManager getInstance(Context context) throws Exception {
+            if (instance == null) {
+                instance = ShadowAccessibilityManager.getInstance(context);
+            }
+            return instance;
+        }
+
+        static void reset() {
+            instance = null;
+        }
+    }
+
+    /**
+     * Robolectric calls the real requestLayout of a view through a proxy it creates on every call. The shadows below
+     * create it once per view instead, for the classes of the views in the test's hierarchy.
+     */
+    @Implements(FrameLayout.class)
+    public static class ShadowDirectFrameLayout extends ShadowFrameLayout {
+        private View directView;
+
+        @Override
+        public void requestLayout() {
+            if (directView == null) {
+                directView = Shadow.directlyOn(realView, View.class);
+            }
+            directView.requestLayout();
+        }
+    }
+
+    @Implements(LinearLayout.class)
+    public static class ShadowDirectLinearLayout extends ShadowLinearLayout {
+        private View directView;
+
+        @Override
+        public void requestLayout() {
+            if (directView == null) {
+                directView = Shadow.directlyOn(realView, View.class);
+            }
+            directView.requestLayout();
+        }
+    }
+
+    /**
+     * RelativeLayout has its own requestLayout, which this shadow replaces too, so it calls that one through a proxy
+     * and only the View.requestLayout it ends up in goes straight to the real method.
+     */
+    @Implements(RelativeLayout.class)
+    public static class ShadowDirectRelativeLayout extends ShadowRelativeLayout {
+        private View directView;
+        private RelativeLayout directRelativeLayout;
+        private boolean requestingLayout = false;
+
+        @Override
+        @Implementation
+        public void requestLayout() {
+            if (directView == null) {
+                directView = Shadow.directlyOn(realView, View.class);
+                directRelativeLayout = Shadow.directlyOn((RelativeLayout) realView, RelativeLayout.class);
+            }
+            if (requestingLayout) {
+                directView.requestLayout();
+                return;
+            }
+            requestingLayout = true;
+            try {
+                directRelativeLayout.requestLayout();
+            } finally {
+                requestingLayout = false;
+            }
+        }
+    }
+
+    /**
+     * Lays out like a View, without Robolectric's shadow of the empty View.onLayout, which boxes its arguments.
+     */
+    private static class StaticView extends View {
+        StaticView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        }
+    }
+}
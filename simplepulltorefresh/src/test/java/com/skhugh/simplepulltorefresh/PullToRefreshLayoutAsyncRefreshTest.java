@@ -0,0 +1,213 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.app.Activity;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.skhugh.simplepulltorefresh.pullstate.PullState;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the refresh tasks of an {@link AsyncPullToRefreshListener} on an executor the test controls, so the task
+ * finishes exactly where each test wants it to, and delivers results on the paused foreground scheduler.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, shadows = FrameDriver.ShadowFrameChoreographer.class)
+public class PullToRefreshLayoutAsyncRefreshTest {
+    private static final int LAYOUT_SIZE = 1000;
+    private static final int REFRESH_TIMEOUT = 1000;
+    private static final String RESULT = "result";
+
+    private PullToRefreshLayout pullToRefreshLayout;
+    private FrameDriver frameDriver;
+    private QueueExecutor executor;
+    private RecordingListener listener;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        pullToRefreshLayout = new PullToRefreshLayout(activity);
+        pullToRefreshLayout.addView(new View(activity), new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        executor = new QueueExecutor();
+        listener = new RecordingListener();
+        pullToRefreshLayout.setRefreshExecutor(executor);
+        pullToRefreshLayout.setRefreshTimeout(REFRESH_TIMEOUT);
+        pullToRefreshLayout.setAsyncPullToRefreshListener(listener);
+        frameDriver = new FrameDriver(activity, pullToRefreshLayout, LAYOUT_SIZE, LAYOUT_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        frameDriver.finish();
+    }
+
+    @Test
+    public void resultIsDeliveredAndEndsTheRefresh() {
+        pullToRefreshLayout.startRefreshing();
+        executor.runAll();
+        frameDriver.runFrame();
+
+        assertEquals(1, listener.calls);
+        assertEquals(1, listener.results.size());
+        assertEquals(RESULT, listener.results.get(0));
+        assertEquals(0, listener.failures.size());
+        assertNotEquals(PullState.REFRESHING, pullToRefreshLayout.getPullState());
+    }
+
+    @Test
+    public void slowTaskTimesOut() {
+        pullToRefreshLayout.startRefreshing();
+        frameDriver.advanceBy(REFRESH_TIMEOUT);
+        frameDriver.runFrame();
+
+        assertEquals(1, listener.failures.size());
+        assertTrue(listener.failures.get(0) instanceof TimeoutException);
+        assertNotEquals(PullState.REFRESHING, pullToRefreshLayout.getPullState());
+
+        // The executor only gets to the task after the timeout
+        executor.runAll();
+        frameDriver.runFrame();
+        assertEquals("calls of the timed out task", 0, listener.calls);
+        assertEquals(0, listener.results.size());
+        assertEquals(1, listener.failures.size());
+    }
+
+    @Test
+    public void refreshDoneCancelsTheTask() {
+        pullToRefreshLayout.startRefreshing();
+        pullToRefreshLayout.refreshDone();
+        executor.runAll();
+        frameDriver.advanceBy(REFRESH_TIMEOUT);
+        frameDriver.runFrame();
+
+        assertEquals("calls of the cancelled task", 0, listener.calls);
+        assertEquals(0, listener.results.size());
+        assertEquals("a cancelled task is not a failure", 0, listener.failures.size());
+    }
+
+    @Test
+    public void detachCancelsTheTask() {
+        pullToRefreshLayout.startRefreshing();
+        ((ViewGroup) pullToRefreshLayout.getParent()).removeView(pullToRefreshLayout);
+        executor.runAll();
+        frameDriver.advanceBy(REFRESH_TIMEOUT);
+
+        assertNotEquals(PullState.REFRESHING, pullToRefreshLayout.getPullState());
+        assertEquals("calls of the cancelled task", 0, listener.calls);
+        assertEquals(0, listener.results.size());
+        assertEquals(0, listener.failures.size());
+    }
+
+    @Test
+    public void lateResultIsDropped() {
+        pullToRefreshLayout.startRefreshing();
+        // The task finishes, but the refresh ends before its result reaches the main thread
+        executor.runAll();
+        pullToRefreshLayout.refreshDone();
+        frameDriver.runFrame();
+
+        assertEquals(1, listener.calls);
+        assertEquals("results delivered after the refresh ended", 0, listener.results.size());
+        assertEquals(0, listener.failures.size());
+    }
+
+    @Test
+    public void rejectedTaskFails() {
+        pullToRefreshLayout.setRefreshExecutor(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        });
+        pullToRefreshLayout.startRefreshing();
+        frameDriver.runFrame();
+
+        assertEquals(1, listener.failures.size());
+        assertTrue(listener.failures.get(0) instanceof RejectedExecutionException);
+        assertNotEquals(PullState.REFRESHING, pullToRefreshLayout.getPullState());
+    }
+
+    private static class QueueExecutor implements Executor {
+        private final List<Runnable> commands = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            commands.add(command);
+        }
+
+        void runAll() {
+            while (!commands.isEmpty()) {
+                commands.remove(0).run();
+            }
+        }
+    }
+
+    private static class RecordingListener implements AsyncPullToRefreshListener<String> {
+        private final List<String> results = new ArrayList<>();
+        private final List<Throwable> failures = new ArrayList<>();
+        private int calls = 0;
+
+        @NonNull
+        @Override
+        public Callable<String> onCreateRefreshTask(@Nullable View view) {
+            return new Callable<String>() {
+                @Override
+                public String call() {
+                    calls++;
+                    return RESULT;
+                }
+            };
+        }
+
+        @Override
+        public void onRefreshFinished(@Nullable String result) {
+            results.add(result);
+        }
+
+        @Override
+        public void onRefreshFailed(@NonNull Throwable throwable) {
+            failures.add(throwable);
+        }
+    }
+}
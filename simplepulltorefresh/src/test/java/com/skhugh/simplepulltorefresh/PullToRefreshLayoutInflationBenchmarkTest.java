@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tracks the cost of creating a {@link PullToRefreshLayout} from XML attributes.
+ * Writes the average inflation time per instance to build/reports/inflation, so that it can be compared between
+ * builds.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PullToRefreshLayoutInflationBenchmarkTest {
+    private static final int WARM_UP_INSTANCE_COUNT = 50;
+    private static final int INSTANCE_COUNT = 500;
+    private static final File REPORT_DIRECTORY = new File("build/reports/inflation");
+
+    private static int addedViewCount;
+
+    private Context context;
+    private AttributeSet attrs;
+    private AttributeSet lazyAttrs;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        attrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.refreshIconSize, "30dp")
+                .addAttribute(R.attr.refreshLayoutPadding, "5dp")
+                .addAttribute(R.attr.refreshLayoutMaxHeight, "100dp")
+                .addAttribute(R.attr.refreshLayoutThresholdHeight, "50dp")
+                .build();
+        lazyAttrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.refreshIconSize, "30dp")
+                .addAttribute(R.attr.refreshLayoutPadding, "5dp")
+                .addAttribute(R.attr.refreshLayoutMaxHeight, "100dp")
+                .addAttribute(R.attr.refreshLayoutThresholdHeight, "50dp")
+                .addAttribute(R.attr.lazyRefreshLayout, "true")
+                .build();
+    }
+
+    @Test
+    public void createsRefreshLayoutOncePerInstance() {
+        addedViewCount = 0;
+        PullToRefreshLayout pullToRefreshLayout = new CountingPullToRefreshLayout(context, attrs);
+
+        assertEquals("views added to PullToRefreshLayout during construction", 1, addedViewCount);
+        assertEquals("views per instance", 3, countViews(pullToRefreshLayout));
+    }
+
+    @Test
+    public void programmaticConstructorCreatesRefreshLayout() {
+        assertEquals("views per instance", 3, countViews(new PullToRefreshLayout(context)));
+    }
+
+    @Test
+    public void lazyRefreshLayoutIsCreatedOnDemand() {
+        PullToRefreshLayout pullToRefreshLayout = new PullToRefreshLayout(context, lazyAttrs);
+        assertEquals("views per lazy instance", 1, countViews(pullToRefreshLayout));
+
+        pullToRefreshLayout.setRefreshIconColor(Color.RED);
+        pullToRefreshLayout.setRefreshLayoutPadding(10);
+        assertEquals("views per lazy instance after styling", 1, countViews(pullToRefreshLayout));
+
+        pullToRefreshLayout.setLazyRefreshLayout(false);
+        assertEquals("views per instance", 3, countViews(pullToRefreshLayout));
+        assertEquals(10, pullToRefreshLayout.getChildAt(0).getPaddingTop());
+    }
+
+    @Test
+    public void inflationTimePerInstance() throws IOException {
+        measureInflation("inflation", attrs, 3);
+    }
+
+    @Test
+    public void lazyInflationTimePerInstance() throws IOException {
+        measureInflation("lazy-inflation", lazyAttrs, 1);
+    }
+
+    private void measureInflation(String name, AttributeSet attrs, int expectedViewCount) throws IOException {
+        for (int i = 0; i < WARM_UP_INSTANCE_COUNT; i++) {
+            new PullToRefreshLayout(context, attrs);
+        }
+
+        int viewCount = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < INSTANCE_COUNT; i++) {
+            viewCount += countViews(new PullToRefreshLayout(context, attrs));
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+
+        Properties report = new Properties();
+        report.setProperty("usPerInstance", String.format(Locale.US, "%.1f", elapsedTime / 1000f / INSTANCE_COUNT));
+        report.setProperty("viewsPerInstance", String.format(Locale.US, "%.1f", (float) viewCount / INSTANCE_COUNT));
+        writeReport(new File(REPORT_DIRECTORY, name + ".properties"), report);
+        assertEquals(expectedViewCount * INSTANCE_COUNT, viewCount);
+    }
+
+    private static void writeReport(File file, Properties report) throws IOException {
+        File directory = file.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            report.store(outputStream, "PullToRefreshLayout inflation report");
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private static int countViews(View view) {
+        int count = 1;
+        if (view instanceof ViewGroup) {
+            ViewGroup viewGroup = (ViewGroup) view;
+            for (int i = 0; i < viewGroup.getChildCount(); i++) {
+                count += countViews(viewGroup.getChildAt(i));
+            }
+        }
+        return count;
+    }
+
+    private static class CountingPullToRefreshLayout extends PullToRefreshLayout {
+        CountingPullToRefreshLayout(Context context, AttributeSet attrs) {
+            super(context, attrs);
+        }
+
+        @Override
+        public void onViewAdded(View view) {
+            // Static, because this is called from the super constructor before fields are initialized
+            addedViewCount++;
+            super.onViewAdded(view);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.skhugh.simplepulltorefresh.pullstate.PullState;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Counts how often the child view is measured and laid out while a pull gesture, the refresh it starts and the settle
+ * back to the initial position are replayed frame by frame.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, shadows = FrameDriver.ShadowFrameChoreographer.class)
+public class PullToRefreshLayoutLayoutCountTest {
+    private static final int LAYOUT_SIZE = 1000;
+    private static final int MOVE_COUNT = 60;
+    private static final int REFRESH_FRAME_COUNT = 60;
+    private static final int MAX_SETTLE_FRAME_COUNT = 600;
+
+    private PullToRefreshLayout pullToRefreshLayout;
+    private CountingView childView;
+    private FrameDriver frameDriver;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        pullToRefreshLayout = new PullToRefreshLayout(activity);
+        childView = new CountingView(activity);
+        pullToRefreshLayout.addView(childView, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        frameDriver = new FrameDriver(activity, pullToRefreshLayout, LAYOUT_SIZE, LAYOUT_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        frameDriver.finish();
+    }
+
+    @Test
+    public void childViewIsNotMeasuredAgainInTranslationMode() {
+        pullToRefreshLayout.setDragMode(PullToRefreshLayout.DRAG_MODE_TRANSLATION);
+        replayGesture();
+
+        assertEquals("child view onMeasure calls after the first frame", 0, childView.measureCount);
+        assertEquals("child view onLayout calls after the first frame", 0, childView.layoutCount);
+    }
+
+    @Test
+    public void childViewIsNotMeasuredAgainInOverlayMode() {
+        pullToRefreshLayout.setDragMode(PullToRefreshLayout.DRAG_MODE_OVERLAY);
+        replayGesture();
+
+        assertEquals("child view onMeasure calls after the first frame", 0, childView.measureCount);
+        assertEquals("child view onLayout calls after the first frame", 0, childView.layoutCount);
+    }
+
+    @Test
+    public void childViewIsMeasuredWhilePullingInMarginMode() {
+        // Makes sure that the replayed frames actually run layout passes
+        pullToRefreshLayout.setDragMode(PullToRefreshLayout.DRAG_MODE_MARGIN);
+        replayGesture();
+
+        assertTrue("child view onMeasure calls after the first frame", childView.measureCount > 0);
+    }
+
+    /**
+     * Pulls down past the threshold one step per frame and releases, finishes the refresh and runs frames until the
+     * refresh layout is back at its initial position. The counters of the child view are reset after the first frame
+     * of the pull.
+     */
+    private void replayGesture() {
+        frameDriver.runFrame();
+
+        long downTime = SystemClock.uptimeMillis();
+        float y = 0;
+        MotionEvent down = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, 0, y, 0);
+        pullToRefreshLayout.dispatchTouchEvent(down);
+        down.recycle();
+        frameDriver.runFrame();
+
+        for (int i = 0; i < MOVE_COUNT; i++) {
+            y += 10;
+            MotionEvent move = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), MotionEvent.ACTION_MOVE, 0, y, 0);
+            pullToRefreshLayout.dispatchTouchEvent(move);
+            move.recycle();
+            frameDriver.runFrame();
+            if (i == 0) {
+                childView.resetCounts();
+            }
+        }
+
+        MotionEvent up = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), MotionEvent.ACTION_UP, 0, y, 0);
+        pullToRefreshLayout.dispatchTouchEvent(up);
+        up.recycle();
+        frameDriver.runFrames(REFRESH_FRAME_COUNT);
+        assertEquals(PullState.REFRESHING, pullToRefreshLayout.getPullState());
+
+        pullToRefreshLayout.refreshDone();
+        for (int i = 0; i < MAX_SETTLE_FRAME_COUNT && pullToRefreshLayout.getPullState() != PullState.IDLE; i++) {
+            frameDriver.runFrame();
+        }
+        assertEquals("the refresh layout did not settle", PullState.IDLE, pullToRefreshLayout.getPullState());
+        // The frame after the last settle frame runs the layout pass it requested
+        frameDriver.runFrame();
+    }
+
+    private static class CountingView extends View {
+        int measureCount = 0;
+        int layoutCount = 0;
+
+        CountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+            layoutCount++;
+            super.onLayout(changed, left, top, right, bottom);
+        }
+
+        void resetCounts() {
+            measureCount = 0;
+            layoutCount = 0;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.app.Activity;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
+import android.widget.FrameLayout;
+import android.widget.ListView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks when the {@link LoadMoreListener} is called for a ListView child.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, shadows = FrameDriver.ShadowFrameChoreographer.class)
+public class PullToRefreshLayoutLoadMoreTest {
+    private static final int LAYOUT_SIZE = 1000;
+    private static final int RETRY_DELAY = 1000;
+
+    private Activity activity;
+    private PullToRefreshLayout pullToRefreshLayout;
+    private ListView listView;
+    private FrameDriver frameDriver;
+    private int loadMoreCount = 0;
+    private final LoadMoreListener loadMoreListener = new LoadMoreListener() {
+        @Override
+        public void onLoadMore(@Nullable View view) {
+            loadMoreCount++;
+        }
+    };
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.setupActivity(Activity.class);
+        pullToRefreshLayout = new PullToRefreshLayout(activity);
+        pullToRefreshLayout.setLoadMoreRetryDelay(RETRY_DELAY);
+        listView = new ListView(activity);
+        pullToRefreshLayout.addView(listView, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        frameDriver = new FrameDriver(activity, pullToRefreshLayout, LAYOUT_SIZE, LAYOUT_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        frameDriver.finish();
+    }
+
+    @Test
+    public void loadsMoreWhenTheEndIsVisible() {
+        setItemCount(5);
+        pullToRefreshLayout.setLoadMoreListener(loadMoreListener);
+        frameDriver.runFrame();
+
+        assertEquals(1, loadMoreCount);
+        assertTrue(pullToRefreshLayout.isLoadingMore());
+    }
+
+    @Test
+    public void makesRoomForTheFooterWhileLoading() {
+        setItemCount(5);
+        pullToRefreshLayout.setLoadMoreListener(loadMoreListener);
+        frameDriver.runFrame();
+        frameDriver.runFrame();
+
+        assertTrue("list height while loading", listView.getHeight() < LAYOUT_SIZE);
+
+        pullToRefreshLayout.setHasMoreToLoad(false);
+        pullToRefreshLayout.loadMoreDone();
+        frameDriver.runFrame();
+
+        assertEquals("list height after loading", LAYOUT_SIZE, listView.getHeight());
+    }
+
+    @Test
+    public void loadsOnePageAtATime() {
+        setItemCount(5);
+        pullToRefreshLayout.setLoadMoreListener(loadMoreListener);
+        frameDriver.runFrame();
+        dispatchScrollChanged();
+        frameDriver.runFrame();
+
+        assertEquals(1, loadMoreCount);
+
+        pullToRefreshLayout.loadMoreDone();
+        frameDriver.runFrame();
+
+        // The short page still does not fill the list
+        assertEquals(2, loadMoreCount);
+    }
+
+    @Test
+    public void doesNotLoadMoreFarFromTheEnd() {
+        setItemCount(200);
+        pullToRefreshLayout.setLoadMoreListener(loadMoreListener);
+        frameDriver.runFrame();
+        dispatchScrollChanged();
+
+        assertEquals(0, loadMoreCount);
+        assertFalse(pullToRefreshLayout.isLoadingMore());
+    }
+
+    @Test
+    public void doesNotLoadMoreWithoutMoreToLoad() {
+        setItemCount(5);
+        pullToRefreshLayout.setHasMoreToLoad(false);
+        pullToRefreshLayout.setLoadMoreListener(loadMoreListener);
+        frameDriver.runFrame();
+
+        assertEquals(0, loadMoreCount);
+    }
+
+    @Test
+    public void retriesWithBackoffAfterFailures() {
+        setItemCount(5);
+        pullToRefreshLayout.setLoadMoreListener(loadMoreListener);
+        frameDriver.runFrame();
+
+        pullToRefreshLayout.loadMoreFailed();
+        dispatchScrollChanged();
+        frameDriver.advanceBy(RETRY_DELAY - FrameDriver.FRAME_TIME);
+        assertEquals("load more calls before the retry delay", 1, loadMoreCount);
+        frameDriver.advanceBy(FrameDriver.FRAME_TIME);
+        assertEquals("load more calls after the retry delay", 2, loadMoreCount);
+
+        pullToRefreshLayout.loadMoreFailed();
+        frameDriver.advanceBy(RETRY_DELAY);
+        assertEquals("load more calls before the doubled retry delay", 2, loadMoreCount);
+        frameDriver.advanceBy(RETRY_DELAY);
+        assertEquals("load more calls after the doubled retry delay", 3, loadMoreCount);
+    }
+
+    @Test
+    @Config(sdk = 23)
+    public void keepsTheScrollChangeListenerOfTheApp() {
+        final int[] scrollChangeCount = {0};
+        listView.setOnScrollChangeListener(new View.OnScrollChangeListener() {
+            @Override
+            public void onScrollChange(View view, int scrollX, int scrollY, int oldScrollX, int oldScrollY) {
+                scrollChangeCount[0]++;
+            }
+        });
+        setItemCount(5);
+        pullToRefreshLayout.setLoadMoreListener(loadMoreListener);
+        frameDriver.runFrame();
+
+        assertEquals("load more calls on Marshmallow", 1, loadMoreCount);
+
+        pullToRefreshLayout.setLoadMoreListener(null);
+        ((ViewGroup) pullToRefreshLayout.getParent()).removeView(pullToRefreshLayout);
+        int scrollChangeCountBefore = scrollChangeCount[0];
+        listView.scrollTo(0, 10);
+
+        assertEquals("scroll changes reported to the app", scrollChangeCountBefore + 1, scrollChangeCount[0]);
+    }
+
+    private void setItemCount(int itemCount) {
+        String[] items = new String[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            items[i] = "item " + i;
+        }
+        listView.setAdapter(new ArrayAdapter<>(activity, android.R.layout.simple_list_item_1, items));
+        frameDriver.runFrame();
+    }
+
+    private void dispatchScrollChanged() {
+        // Hidden in the framework, it is what a scroll of any view in the window ends up calling
+        ReflectionHelpers.callInstanceMethod(listView.getViewTreeObserver(), "dispatchOnScrollChanged");
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh;
+
+import android.app.Activity;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.skhugh.simplepulltorefresh.pullstate.PullState;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives the layout as the nested scrolling parent of its child view, the way a RecyclerView reports its scrolls.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, shadows = FrameDriver.ShadowFrameChoreographer.class)
+public class PullToRefreshLayoutNestedScrollTest {
+    private static final int LAYOUT_SIZE = 1000;
+    private static final int SCROLL_COUNT = 20;
+    private static final int SCROLL_DISTANCE = 40;
+    private static final int REFRESH_FRAME_COUNT = 60;
+    private static final int MAX_SETTLE_FRAME_COUNT = 600;
+
+    private PullToRefreshLayout pullToRefreshLayout;
+    private View childView;
+    private FrameDriver frameDriver;
+    private int refreshCount = 0;
+    private int lastOffset = 0;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        pullToRefreshLayout = new PullToRefreshLayout(activity);
+        childView = new View(activity);
+        pullToRefreshLayout.addView(childView, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        pullToRefreshLayout.setPullToRefreshListener(new PullToRefreshListener() {
+            @Override
+            public void onStartRefresh(@Nullable View view) {
+                refreshCount++;
+            }
+        });
+        pullToRefreshLayout.setPullProgressListener(new PullProgressListener() {
+            @Override
+            public void onPullProgress(int offset, float progress, int state) {
+                lastOffset = offset;
+            }
+        });
+        frameDriver = new FrameDriver(activity, pullToRefreshLayout, LAYOUT_SIZE, LAYOUT_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        frameDriver.finish();
+    }
+
+    @Test
+    public void nestedPullStartsRefresh() {
+        pullDown();
+
+        assertEquals(1, refreshCount);
+        assertEquals(PullState.REFRESHING, pullToRefreshLayout.getPullState());
+    }
+
+    @Test
+    public void tapDuringSettleDoesNotStopTheSettle() {
+        startSettle();
+        int offsetBeforeTap = lastOffset;
+
+        // A tap starts and stops a nested scroll without scrolling
+        startNestedScroll();
+        pullToRefreshLayout.onStopNestedScroll(childView);
+        frameDriver.runFrame();
+
+        assertEquals(PullState.SETTLING, pullToRefreshLayout.getPullState());
+        assertTrue("the settle stopped at " + lastOffset, lastOffset < offsetBeforeTap);
+        runFramesUntilIdle();
+        assertEquals(0, lastOffset);
+        assertEquals("refreshes started", 1, refreshCount);
+    }
+
+    @Test
+    public void nestedScrollDuringSettleCatchesTheRefreshLayout() {
+        startSettle();
+
+        startNestedScroll();
+        pullToRefreshLayout.onNestedScroll(childView, 0, 0, 0, -SCROLL_DISTANCE);
+
+        assertEquals(PullState.DRAGGING, pullToRefreshLayout.getPullState());
+        frameDriver.runFrame();
+        int offsetWhileDragging = lastOffset;
+        frameDriver.runFrames(2);
+        assertEquals("the settle kept moving the dragged refresh layout", offsetWhileDragging, lastOffset);
+    }
+
+    private void pullDown() {
+        startNestedScroll();
+        for (int i = 0; i < SCROLL_COUNT; i++) {
+            pullToRefreshLayout.onNestedScroll(childView, 0, 0, 0, -SCROLL_DISTANCE);
+            frameDriver.runFrame();
+        }
+        pullToRefreshLayout.onStopNestedScroll(childView);
+    }
+
+    /**
+     * Pulls down, lets the refresh layout settle at the threshold height, finishes the refresh and runs the first
+     * frames of the settle back to the initial position.
+     */
+    private void startSettle() {
+        pullDown();
+        frameDriver.runFrames(REFRESH_FRAME_COUNT);
+        pullToRefreshLayout.refreshDone();
+        frameDriver.runFrames(2);
+        assertEquals(PullState.SETTLING, pullToRefreshLayout.getPullState());
+        assertTrue("the refresh layout is already back at its initial position", lastOffset > 0);
+    }
+
+    private void startNestedScroll() {
+        assertTrue(pullToRefreshLayout.onStartNestedScroll(childView, childView, ViewCompat.SCROLL_AXIS_VERTICAL));
+        pullToRefreshLayout.onNestedScrollAccepted(childView, childView, ViewCompat.SCROLL_AXIS_VERTICAL);
+    }
+
+    private void runFramesUntilIdle() {
+        for (int i = 0; i < MAX_SETTLE_FRAME_COUNT && pullToRefreshLayout.getPullState() != PullState.IDLE; i++) {
+            frameDriver.runFrame();
+        }
+        assertEquals(PullState.IDLE, pullToRefreshLayout.getPullState());
+        frameDriver.runFrame();
+    }
+}
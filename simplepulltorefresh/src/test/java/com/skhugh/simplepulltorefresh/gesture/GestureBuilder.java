@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.gesture;
+
+import android.view.MotionEvent;
+
+import com.skhugh.simplepulltorefresh.FrameDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds single pointer {@link GestureRecording}s for tests. Moves are split into one MotionEvent per frame,
+ * each carrying the touch samples between two frames as history, like the input dispatcher batches them.
+ */
+public class GestureBuilder {
+    private final List<GestureRecording.Event> events = new ArrayList<>();
+    private final int samplesPerFrame;
+    private int time = 0;
+    private float x;
+    private float y;
+
+    /**
+     * @param samplesPerFrame touch samples per frame, e.g. 2 for a 120 Hz touch panel on a 60 Hz display
+     */
+    public GestureBuilder(int samplesPerFrame) {
+        this.samplesPerFrame = samplesPerFrame;
+    }
+
+    public GestureBuilder down(float x, float y) {
+        this.x = x;
+        this.y = y;
+        addEvent(MotionEvent.ACTION_DOWN, new int[]{time}, new float[]{y});
+        return this;
+    }
+
+    /**
+     * Moves linearly by dy within durationMillis.
+     */
+    public GestureBuilder move(float dy, int durationMillis) {
+        int frames = Math.max(1, durationMillis / FrameDriver.FRAME_TIME);
+        int sampleCount = frames * samplesPerFrame;
+        float startY = y;
+        int startTime = time;
+        for (int frame = 0; frame < frames; frame++) {
+            int[] times = new int[samplesPerFrame];
+            float[] ys = new float[samplesPerFrame];
+            for (int sample = 0; sample < samplesPerFrame; sample++) {
+                int sampleIndex = frame * samplesPerFrame + sample + 1;
+                times[sample] = startTime + sampleIndex * durationMillis / sampleCount;
+                ys[sample] = startY + dy * sampleIndex / sampleCount;
+            }
+            addEvent(MotionEvent.ACTION_MOVE, times, ys);
+        }
+        time = startTime + durationMillis;
+        y = startY + dy;
+        return this;
+    }
+
+    /**
+     * Keeps the finger still without any events.
+     */
+    public GestureBuilder hold(int durationMillis) {
+        time += durationMillis;
+        return this;
+    }
+
+    public GestureBuilder up() {
+        addEvent(MotionEvent.ACTION_UP, new int[]{time}, new float[]{y});
+        return this;
+    }
+
+    public GestureBuilder cancel() {
+        addEvent(MotionEvent.ACTION_CANCEL, new int[]{time}, new float[]{y});
+        return this;
+    }
+
+    public GestureRecording build() {
+        return new GestureRecording(events);
+    }
+
+    private void addEvent(int action, int[] times, float[] ys) {
+        float[][] xs = new float[times.length][1];
+        float[][] pointerYs = new float[times.length][1];
+        for (int sample = 0; sample < times.length; sample++) {
+            xs[sample][0] = x;
+            pointerYs[sample][0] = ys[sample];
+        }
+        events.add(new GestureRecording.Event(action, 0, new int[]{0}, times, xs, pointerYs));
+        y = ys[ys.length - 1];
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.gesture;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records MotionEvents, including pointer ids and historical samples, into a {@link GestureRecording}.
+ * Set it as the OnTouchListener of a view, or pass events to {@link #record(MotionEvent)}, e.g. from
+ * dispatchTouchEvent of an activity on a device. Events before the first DOWN are ignored.
+ */
+public class GestureRecorder implements View.OnTouchListener {
+    private final List<GestureRecording.Event> events = new ArrayList<>();
+    private long downTime = -1;
+
+    @Override
+    public boolean onTouch(View view, MotionEvent motionEvent) {
+        record(motionEvent);
+        return false;
+    }
+
+    public void record(MotionEvent motionEvent) {
+        int action = motionEvent.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) {
+            downTime = motionEvent.getDownTime();
+        } else if (downTime < 0) {
+            return;
+        }
+
+        int pointerCount = motionEvent.getPointerCount();
+        int[] pointerIds = new int[pointerCount];
+        for (int pointer = 0; pointer < pointerCount; pointer++) {
+            pointerIds[pointer] = motionEvent.getPointerId(pointer);
+        }
+
+        int historySize = motionEvent.getHistorySize();
+        int[] times = new int[historySize + 1];
+        float[][] xs = new float[historySize + 1][pointerCount];
+        float[][] ys = new float[historySize + 1][pointerCount];
+        for (int sample = 0; sample <= historySize; sample++) {
+            boolean current = sample == historySize;
+            times[sample] = (int) ((current ? motionEvent.getEventTime()
+                    : motionEvent.getHistoricalEventTime(sample)) - downTime);
+            for (int pointer = 0; pointer < pointerCount; pointer++) {
+                xs[sample][pointer] = current ? motionEvent.getX(pointer)
+                        : motionEvent.getHistoricalX(pointer, sample);
+                ys[sample][pointer] = current ? motionEvent.getY(pointer)
+                        : motionEvent.getHistoricalY(pointer, sample);
+            }
+        }
+        events.add(new GestureRecording.Event(action, motionEvent.getActionIndex(), pointerIds, times, xs, ys));
+    }
+
+    public GestureRecording finish() {
+        return new GestureRecording(events);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.gesture;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A recorded MotionEvent stream of one gesture. Times are millis since the DOWN event, so recordings replay the same
+ * way on any clock.
+ * <p>
+ * Binary format, big endian:
+ * <pre>
+ * int   magic "PTRG"
+ * byte  version
+ * int   event count
+ * per event:
+ *   byte  masked action
+ *   byte  action index
+ *   byte  pointer count, followed by one byte pointer id per pointer
+ *   short sample count, the historical samples followed by the current one
+ *   per sample: int time, then float x and float y per pointer
+ * </pre>
+ */
+public class GestureRecording {
+    private static final int MAGIC = 0x50545247;
+    private static final int VERSION = 1;
+
+    private final List<Event> events;
+
+    GestureRecording(List<Event> events) {
+        this.events = Collections.unmodifiableList(new ArrayList<>(events));
+    }
+
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    /**
+     * @return time of the last sample in millis since the DOWN event
+     */
+    public int getDuration() {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Event lastEvent = events.get(events.size() - 1);
+        return lastEvent.getTime(lastEvent.getSampleCount() - 1);
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(events.size());
+        for (Event event : events) {
+            out.writeByte(event.action);
+            out.writeByte(event.actionIndex);
+            out.writeByte(event.pointerIds.length);
+            for (int pointerId : event.pointerIds) {
+                out.writeByte(pointerId);
+            }
+            out.writeShort(event.times.length);
+            for (int sample = 0; sample < event.times.length; sample++) {
+                out.writeInt(event.times[sample]);
+                for (int pointer = 0; pointer < event.pointerIds.length; pointer++) {
+                    out.writeFloat(event.xs[sample][pointer]);
+                    out.writeFloat(event.ys[sample][pointer]);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    public static GestureRecording readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a gesture recording");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported gesture recording version " + version);
+        }
+        int eventCount = in.readInt();
+        List<Event> events = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            int action = in.readUnsignedByte();
+            int actionIndex = in.readUnsignedByte();
+            int[] pointerIds = new int[in.readUnsignedByte()];
+            for (int pointer = 0; pointer < pointerIds.length; pointer++) {
+                pointerIds[pointer] = in.readUnsignedByte();
+            }
+            int sampleCount = in.readUnsignedShort();
+            int[] times = new int[sampleCount];
+            float[][] xs = new float[sampleCount][pointerIds.length];
+            float[][] ys = new float[sampleCount][pointerIds.length];
+            for (int sample = 0; sample < sampleCount; sample++) {
+                times[sample] = in.readInt();
+                for (int pointer = 0; pointer < pointerIds.length; pointer++) {
+                    xs[sample][pointer] = in.readFloat();
+                    ys[sample][pointer] = in.readFloat();
+                }
+            }
+            events.add(new Event(action, actionIndex, pointerIds, times, xs, ys));
+        }
+        return new GestureRecording(events);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GestureRecording && events.equals(((GestureRecording) o).events);
+    }
+
+    @Override
+    public int hashCode() {
+        return events.hashCode();
+    }
+
+    /**
+     * One MotionEvent with its historical samples.
+     */
+    public static class Event {
+        private final int action;
+        private final int actionIndex;
+        private final int[] pointerIds;
+        private final int[] times;
+        private final float[][] xs;
+        private final float[][] ys;
+
+        Event(int action, int actionIndex, int[] pointerIds, int[] times, float[][] xs, float[][] ys) {
+            this.action = action;
+            this.actionIndex = actionIndex;
+            this.pointerIds = pointerIds;
+            this.times = times;
+            this.xs = xs;
+            this.ys = ys;
+        }
+
+        public int getAction() {
+            return action;
+        }
+
+        public int getActionIndex() {
+            return actionIndex;
+        }
+
+        public int getPointerCount() {
+            return pointerIds.length;
+        }
+
+        public int getPointerId(int pointer) {
+            return pointerIds[pointer];
+        }
+
+        /**
+         * @return number of samples, the last one being the current sample of the event
+         */
+        public int getSampleCount() {
+            return times.length;
+        }
+
+        public int getTime(int sample) {
+            return times[sample];
+        }
+
+        public float getX(int sample, int pointer) {
+            return xs[sample][pointer];
+        }
+
+        public float getY(int sample, int pointer) {
+            return ys[sample][pointer];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Event)) {
+                return false;
+            }
+            Event event = (Event) o;
+            return action == event.action && actionIndex == event.actionIndex
+                    && Arrays.equals(pointerIds, event.pointerIds)
+                    && Arrays.equals(times, event.times)
+                    && Arrays.deepEquals(xs, event.xs)
+                    && Arrays.deepEquals(ys, event.ys);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * action + Arrays.hashCode(times);
+        }
+    }
+}
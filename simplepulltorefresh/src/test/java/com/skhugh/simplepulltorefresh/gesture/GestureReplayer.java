@@ -0,0 +1,152 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.gesture;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import com.skhugh.simplepulltorefresh.AllocationCounter;
+import com.skhugh.simplepulltorefresh.FrameDriver;
+import com.skhugh.simplepulltorefresh.PullProgressListener;
+import com.skhugh.simplepulltorefresh.PullToRefreshLayout;
+import com.skhugh.simplepulltorefresh.pullstate.PullState;
+import com.skhugh.simplepulltorefresh.pullstate.PullStateListener;
+
+import java.util.List;
+
+/**
+ * Replays {@link GestureRecording}s against a {@link PullToRefreshLayout} under Robolectric, frame by frame with a
+ * {@link FrameDriver}, so every run sees exactly the same event and frame times.
+ * <p>
+ * Each frame dispatches the events which arrived since the previous frame, then runs the frame. Robolectric's MotionEvent has no history, so historical
+ * samples are dispatched as MOVE events of their own within the same frame. PullToRefreshLayout updates its views
+ * once per frame either way. Robolectric's MotionEvent has a single pointer as well, so gestures with more than one
+ * pointer are rejected before anything is dispatched, and the one pointer is always replayed with id 0.
+ */
+public class GestureReplayer {
+    private static final int MAX_SETTLE_FRAMES = 600;
+
+    private final PullToRefreshLayout pullToRefreshLayout;
+    private final FrameDriver frameDriver;
+    private GestureReport report;
+
+    /**
+     * Installs a {@link PullProgressListener} and a {@link PullStateListener} on pullToRefreshLayout to count their
+     * invocations.
+     *
+     * @param frameDriver driver of the content view which holds pullToRefreshLayout
+     */
+    public GestureReplayer(PullToRefreshLayout pullToRefreshLayout, FrameDriver frameDriver) {
+        this.pullToRefreshLayout = pullToRefreshLayout;
+        this.frameDriver = frameDriver;
+
+        pullToRefreshLayout.setPullProgressListener(new PullProgressListener() {
+            @Override
+            public void onPullProgress(int offset, float progress, int state) {
+                if (report != null) {
+                    report.onProgressCallback();
+                }
+            }
+        });
+        pullToRefreshLayout.setPullStateListener(new PullStateListener() {
+            @Override
+            public void onPullStateChanged(int previousState, int newState) {
+                if (report != null) {
+                    report.onStateChange();
+                    if (newState == PullState.REFRESHING) {
+                        report.onRefresh();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Replays the gesture, then runs frames until the refresh layout is back at rest or
+     * {@link #MAX_SETTLE_FRAMES} frames have passed.
+     */
+    public GestureReport replay(GestureRecording recording) {
+        checkReplayable(recording);
+        report = new GestureReport();
+        long allocatedBytesBefore = AllocationCounter.getAllocatedBytes();
+
+        List<GestureRecording.Event> events = recording.getEvents();
+        long downTime = SystemClock.uptimeMillis();
+        int eventIndex = 0;
+        while (eventIndex < events.size()) {
+            long elapsed = SystemClock.uptimeMillis() - downTime;
+            while (eventIndex < events.size() && lastSampleTime(events.get(eventIndex)) <= elapsed) {
+                dispatch(events.get(eventIndex), downTime);
+                eventIndex++;
+            }
+            runFrame();
+        }
+        for (int frame = 0; frame < MAX_SETTLE_FRAMES && pullToRefreshLayout.getPullState() != PullState.IDLE;
+             frame++) {
+            runFrame();
+        }
+
+        report.setAllocatedBytes(AllocationCounter.getAllocatedBytes() - allocatedBytesBefore);
+        GestureReport finishedReport = report;
+        report = null;
+        return finishedReport;
+    }
+
+    /**
+     * @throws IllegalArgumentException if an event of the recording has more than one pointer
+     */
+    public static void checkReplayable(GestureRecording recording) {
+        List<GestureRecording.Event> events = recording.getEvents();
+        for (int i = 0; i < events.size(); i++) {
+            int pointerCount = events.get(i).getPointerCount();
+            if (pointerCount != 1) {
+                throw new IllegalArgumentException("Event " + i + " of the recording has " + pointerCount
+                        + " pointers, but only single pointer gestures can be replayed under Robolectric");
+            }
+        }
+    }
+
+    private void dispatch(GestureRecording.Event event, long downTime) {
+        int lastSample = event.getSampleCount() - 1;
+        for (int sample = 0; sample < lastSample; sample++) {
+            dispatch(MotionEvent.ACTION_MOVE, event, sample, downTime);
+        }
+        dispatch(event.getAction(), event, lastSample, downTime);
+    }
+
+    private void dispatch(int action, GestureRecording.Event event, int sample, long downTime) {
+        MotionEvent motionEvent = MotionEvent.obtain(downTime, downTime + event.getTime(sample), action,
+                event.getX(sample, 0), event.getY(sample, 0), 0);
+        pullToRefreshLayout.dispatchTouchEvent(motionEvent);
+        motionEvent.recycle();
+        report.onEvent();
+    }
+
+    private void runFrame() {
+        report.onFrame();
+        if (frameDriver.runFrame()) {
+            report.onLayoutPass();
+        }
+    }
+
+    private static int lastSampleTime(GestureRecording.Event event) {
+        return event.getTime(event.getSampleCount() - 1);
+    }
+}
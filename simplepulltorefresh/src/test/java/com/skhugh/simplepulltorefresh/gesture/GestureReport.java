@@ -0,0 +1,190 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.gesture;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Numbers of one replayed gesture, from its DOWN event until the refresh layout is back at rest.
+ * Reports are written as properties files, so a CI job can keep them as a baseline and compare later runs.
+ * Allocated bytes are only reported. They depend on when the JIT compiles and the GC runs, so they differ by more
+ * than any useful tolerance between runs of the same gesture, and baselines leave them out.
+ */
+public class GestureReport {
+    private static final String EVENTS = "events";
+    private static final String LAYOUT_PASSES = "layoutPasses";
+    private static final String FRAMES = "frames";
+    private static final String PROGRESS_CALLBACKS = "progressCallbacks";
+    private static final String STATE_CHANGES = "stateChanges";
+    private static final String REFRESHES = "refreshes";
+    private static final String ALLOCATED_BYTES = "allocatedBytes";
+
+    private long events = 0;
+    private long layoutPasses = 0;
+    private long frames = 0;
+    private long progressCallbacks = 0;
+    private long stateChanges = 0;
+    private long refreshes = 0;
+    private long allocatedBytes = 0;
+
+    public long getEvents() {
+        return events;
+    }
+
+    public long getLayoutPasses() {
+        return layoutPasses;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getProgressCallbacks() {
+        return progressCallbacks;
+    }
+
+    public long getStateChanges() {
+        return stateChanges;
+    }
+
+    public long getRefreshes() {
+        return refreshes;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    void onEvent() {
+        events++;
+    }
+
+    void onLayoutPass() {
+        layoutPasses++;
+    }
+
+    void onFrame() {
+        frames++;
+    }
+
+    void onProgressCallback() {
+        progressCallbacks++;
+    }
+
+    void onStateChange() {
+        stateChanges++;
+    }
+
+    void onRefresh() {
+        refreshes++;
+    }
+
+    void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public void writeTo(File file) throws IOException {
+        File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            toProperties().store(outputStream, "Gesture replay report");
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Reads a baseline. Allocated bytes are not read.
+     *
+     * @throws IOException if the baseline misses one of the counted numbers
+     */
+    public static GestureReport readFrom(InputStream inputStream) throws IOException {
+        Properties properties = new Properties();
+        properties.load(inputStream);
+        GestureReport report = new GestureReport();
+        report.events = readValue(properties, EVENTS);
+        report.layoutPasses = readValue(properties, LAYOUT_PASSES);
+        report.frames = readValue(properties, FRAMES);
+        report.progressCallbacks = readValue(properties, PROGRESS_CALLBACKS);
+        report.stateChanges = readValue(properties, STATE_CHANGES);
+        report.refreshes = readValue(properties, REFRESHES);
+        return report;
+    }
+
+    /**
+     * Fails if any counted number is more than tolerance times higher than in the baseline.
+     *
+     * @param tolerance allowed relative increase, e.g. 0.1 for 10 %
+     */
+    public void assertNotWorseThan(GestureReport baseline, float tolerance) {
+        assertNotWorseThan(EVENTS, events, baseline.events, tolerance);
+        assertNotWorseThan(LAYOUT_PASSES, layoutPasses, baseline.layoutPasses, tolerance);
+        assertNotWorseThan(FRAMES, frames, baseline.frames, tolerance);
+        assertNotWorseThan(PROGRESS_CALLBACKS, progressCallbacks, baseline.progressCallbacks, tolerance);
+        assertNotWorseThan(STATE_CHANGES, stateChanges, baseline.stateChanges, tolerance);
+        assertNotWorseThan(REFRESHES, refreshes, baseline.refreshes, tolerance);
+    }
+
+    private static void assertNotWorseThan(String key, long value, long baselineValue, float tolerance) {
+        assertTrue(key + " went from " + baselineValue + " to " + value,
+                value <= baselineValue + (long) Math.ceil(baselineValue * tolerance));
+    }
+
+    private static long readValue(Properties properties, String key) throws IOException {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IOException("The baseline has no " + key);
+        }
+        return Long.parseLong(value);
+    }
+
+    private Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(EVENTS, Long.toString(events));
+        properties.setProperty(LAYOUT_PASSES, Long.toString(layoutPasses));
+        properties.setProperty(FRAMES, Long.toString(frames));
+        properties.setProperty(PROGRESS_CALLBACKS, Long.toString(progressCallbacks));
+        properties.setProperty(STATE_CHANGES, Long.toString(stateChanges));
+        properties.setProperty(REFRESHES, Long.toString(refreshes));
+        properties.setProperty(ALLOCATED_BYTES, Long.toString(allocatedBytes));
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return EVENTS + '=' + events
+                + " " + LAYOUT_PASSES + '=' + layoutPasses
+                + " " + FRAMES + '=' + frames
+                + " " + PROGRESS_CALLBACKS + '=' + progressCallbacks
+                + " " + STATE_CHANGES + '=' + stateChanges
+                + " " + REFRESHES + '=' + refreshes
+                + " " + ALLOCATED_BYTES + '=' + allocatedBytes;
+    }
+}
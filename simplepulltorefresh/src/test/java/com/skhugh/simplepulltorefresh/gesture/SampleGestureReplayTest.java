@@ -0,0 +1,290 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2016. Hyowoo Kim
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions
+ * of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+ * BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.skhugh.simplepulltorefresh.gesture;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import com.skhugh.simplepulltorefresh.BuildConfig;
+import com.skhugh.simplepulltorefresh.FrameDriver;
+import com.skhugh.simplepulltorefresh.PullToRefreshLayout;
+import com.skhugh.simplepulltorefresh.PullToRefreshListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays gestures like the ones used with the ListActivity, RecyclerActivity and MultiplePullToRefreshActivity
+ * samples, and writes a report per gesture to build/reports/gestures. The recordings and baselines are in the gestures
+ * test resources, and every report must not be more than {@link #BASELINE_TOLERANCE} worse than its baseline. When
+ * a change makes a gesture cheaper, copy the counted numbers of its report into the baseline.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, shadows = FrameDriver.ShadowFrameChoreographer.class)
+public class SampleGestureReplayTest {
+    private static final int LAYOUT_SIZE = 1000;
+    private static final int SMALL_LAYOUT_SIZE = 150;
+    private static final int REFRESH_TIME = 500;
+    private static final float BASELINE_TOLERANCE = 0.1f;
+    private static final String GESTURE_RESOURCES = "/gestures/";
+    private static final File REPORT_DIRECTORY = new File("build/reports/gestures");
+
+    private Activity activity;
+    private FrameDriver frameDriver;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.setupActivity(Activity.class);
+    }
+
+    @After
+    public void tearDown() {
+        if (frameDriver != null) {
+            frameDriver.finish();
+        }
+    }
+
+    @Test
+    public void listSample() throws IOException {
+        ListView listView = new ListView(activity);
+        String[] items = new String[50];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = "Item " + i;
+        }
+        listView.setAdapter(new ArrayAdapter<>(activity, android.R.layout.simple_list_item_1, items));
+
+        PullToRefreshLayout pullToRefreshLayout = createPullToRefreshLayout(listView);
+        pullToRefreshLayout.setRefreshIconSize(70);
+        pullToRefreshLayout.setRefreshIconSpinDuration(500);
+        pullToRefreshLayout.setRefreshLayoutPadding(0);
+        pullToRefreshLayout.setRefreshLayoutMaxHeight(1000);
+        pullToRefreshLayout.setRefreshLayoutThresholdHeight(100);
+        frameDriver = new FrameDriver(activity, pullToRefreshLayout, LAYOUT_SIZE, LAYOUT_SIZE);
+
+        // A slow pull past the threshold on a 60 Hz touch panel, seeded with
+        // new GestureBuilder(1).down(500, 100).move(300, 600).hold(100).up()
+        GestureRecording gesture = readGesture("list");
+        GestureReport report = replayWarm(pullToRefreshLayout, gesture);
+        checkReport("list", report);
+
+        assertEquals("refreshes", 1, report.getRefreshes());
+        assertTrue("margin mode lays out while pulling", report.getLayoutPasses() > 0);
+    }
+
+    @Test
+    public void recyclerSample() throws IOException {
+        RecyclerView recyclerView = new RecyclerView(activity);
+        recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+        recyclerView.setAdapter(new TextAdapter(30));
+
+        PullToRefreshLayout pullToRefreshLayout = createPullToRefreshLayout(recyclerView);
+        pullToRefreshLayout.setDragMode(PullToRefreshLayout.DRAG_MODE_TRANSLATION);
+        pullToRefreshLayout.setHardwareLayers(PullToRefreshLayout.HARDWARE_LAYER_CONTENT);
+        frameDriver = new FrameDriver(activity, pullToRefreshLayout, LAYOUT_SIZE, LAYOUT_SIZE);
+
+        // A quick pull past the threshold on a 120 Hz touch panel, so every MOVE carries history, seeded with
+        // new GestureBuilder(2).down(500, 50).move(600, 320).up()
+        GestureRecording gesture = readGesture("recycler");
+        GestureReport report = replayWarm(pullToRefreshLayout, gesture);
+        checkReport("recycler", report);
+
+        assertEquals("refreshes", 1, report.getRefreshes());
+    }
+
+    @Test
+    public void multiplePullToRefreshSample() throws IOException {
+        LinearLayout rootView = new LinearLayout(activity);
+        PullToRefreshLayout imagePullToRefreshLayout = createPullToRefreshLayout(new ImageView(activity));
+        imagePullToRefreshLayout.setRefreshIconSize(30);
+        imagePullToRefreshLayout.setRefreshLayoutPadding(5);
+        imagePullToRefreshLayout.setRefreshLayoutMaxHeight(100);
+        imagePullToRefreshLayout.setRefreshLayoutThresholdHeight(50);
+        PullToRefreshLayout webPullToRefreshLayout = createPullToRefreshLayout(new View(activity));
+        webPullToRefreshLayout.setRefreshIconSize(36);
+        webPullToRefreshLayout.setRefreshLayoutPadding(0);
+        webPullToRefreshLayout.setRefreshLayoutMaxHeight(150);
+        webPullToRefreshLayout.setRefreshLayoutThresholdHeight(100);
+        rootView.addView(imagePullToRefreshLayout, new LinearLayout.LayoutParams(SMALL_LAYOUT_SIZE, SMALL_LAYOUT_SIZE));
+        rootView.addView(webPullToRefreshLayout, new LinearLayout.LayoutParams(SMALL_LAYOUT_SIZE, SMALL_LAYOUT_SIZE));
+        frameDriver = new FrameDriver(activity, rootView, LAYOUT_SIZE, LAYOUT_SIZE);
+
+        // A short pull which is released below the threshold, then a full pull on the other layout, seeded with
+        // new GestureBuilder(1).down(75, 10).move(40, 200).up() and .move(140, 400) respectively
+        GestureRecording shortPull = readGesture("multiple-short-pull");
+        GestureRecording fullPull = readGesture("multiple-full-pull");
+        GestureReport shortPullReport = replayWarm(imagePullToRefreshLayout, shortPull);
+        GestureReport fullPullReport = replayWarm(webPullToRefreshLayout, fullPull);
+        checkReport("multiple-short-pull", shortPullReport);
+        checkReport("multiple-full-pull", fullPullReport);
+
+        assertEquals("refreshes of the short pull", 0, shortPullReport.getRefreshes());
+        assertEquals("refreshes of the full pull", 1, fullPullReport.getRefreshes());
+    }
+
+    @Test
+    public void recordingsSurviveTheBinaryFormat() throws IOException {
+        GestureRecording recording = new GestureBuilder(3)
+                .down(10, 20)
+                .move(123.5f, 100)
+                .hold(50)
+                .move(-20, 32)
+                .cancel()
+                .build();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        recording.writeTo(outputStream);
+
+        assertEquals(recording, GestureRecording.readFrom(new ByteArrayInputStream(outputStream.toByteArray())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multiPointerRecordingsAreRejected() {
+        GestureRecording.Event pointerDown = new GestureRecording.Event(MotionEvent.ACTION_POINTER_DOWN, 1,
+                new int[]{0, 1}, new int[]{16}, new float[][]{{10, 50}}, new float[][]{{20, 20}});
+        GestureRecording recording = new GestureRecording(Collections.singletonList(pointerDown));
+
+        GestureReplayer.checkReplayable(recording);
+    }
+
+    @Test
+    public void recorderKeepsTimesRelativeToTheDownEvent() {
+        long downTime = SystemClock.uptimeMillis();
+        GestureRecorder recorder = new GestureRecorder();
+        MotionEvent move = MotionEvent.obtain(downTime - 10, downTime - 10, MotionEvent.ACTION_MOVE, 0, 0, 0);
+        MotionEvent down = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, 5, 10, 0);
+        MotionEvent up = MotionEvent.obtain(downTime, downTime + 120, MotionEvent.ACTION_UP, 5, 90, 0);
+        recorder.record(move);
+        recorder.record(down);
+        recorder.record(up);
+        move.recycle();
+        down.recycle();
+        up.recycle();
+
+        GestureRecording recording = recorder.finish();
+        assertEquals("events before DOWN are ignored", 2, recording.getEvents().size());
+        assertEquals(120, recording.getDuration());
+        assertEquals(90, recording.getEvents().get(1).getY(0, 0), 0);
+    }
+
+    private PullToRefreshLayout createPullToRefreshLayout(View childView) {
+        final PullToRefreshLayout pullToRefreshLayout = new PullToRefreshLayout(activity);
+        pullToRefreshLayout.addView(childView, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        final Runnable refreshDone = new Runnable() {
+            @Override
+            public void run() {
+                pullToRefreshLayout.refreshDone();
+            }
+        };
+        pullToRefreshLayout.setPullToRefreshListener(new PullToRefreshListener() {
+            @Override
+            public void onStartRefresh(View view) {
+                pullToRefreshLayout.postDelayed(refreshDone, REFRESH_TIME);
+            }
+        });
+        return pullToRefreshLayout;
+    }
+
+    /**
+     * Replays the gesture twice and reports the second run, so that lazily created objects are not counted.
+     */
+    private GestureReport replayWarm(PullToRefreshLayout pullToRefreshLayout, GestureRecording gesture) {
+        GestureReplayer replayer = new GestureReplayer(pullToRefreshLayout, frameDriver);
+        replayer.replay(gesture);
+        return replayer.replay(gesture);
+    }
+
+    private static GestureRecording readGesture(String name) throws IOException {
+        InputStream inputStream =
+                SampleGestureReplayTest.class.getResourceAsStream(GESTURE_RESOURCES + name + ".gesture");
+        assertNotNull("missing gesture recording " + name, inputStream);
+        try {
+            return GestureRecording.readFrom(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static void checkReport(String name, GestureReport report) throws IOException {
+        report.writeTo(new File(REPORT_DIRECTORY, name + ".properties"));
+
+        assertTrue("progress callbacks are batched per frame: " + report,
+                report.getProgressCallbacks() <= report.getFrames());
+        InputStream baseline =
+                SampleGestureReplayTest.class.getResourceAsStream(GESTURE_RESOURCES + name + ".properties");
+        assertNotNull("missing baseline " + name, baseline);
+        try {
+            report.assertNotWorseThan(GestureReport.readFrom(baseline), BASELINE_TOLERANCE);
+        } finally {
+            baseline.close();
+        }
+    }
+
+    private static class TextAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private final int itemCount;
+
+        TextAdapter(int itemCount) {
+            this.itemCount = itemCount;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return new RecyclerView.ViewHolder(new TextView(parent.getContext())) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            ((TextView) holder.itemView).setText("Item " + position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return itemCount;
+        }
+    }
+}